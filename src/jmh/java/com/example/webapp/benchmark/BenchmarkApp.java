@@ -0,0 +1,89 @@
+package com.example.webapp.benchmark;
+
+import com.example.webapp.WebAppApplication;
+import com.example.webapp.model.BulkRowResult;
+import com.example.webapp.model.Student;
+import com.example.webapp.service.StudentService;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * The application started on an in-memory MongoDB stand-in (mongo-java-server), with the seed data
+ * The stand-in keeps runs reproducible without a database server; its absolute numbers are not
+ * those of a real mongod, so compare results between revisions rather than against production.
+ */
+final class BenchmarkApp implements AutoCloseable {
+
+    private static final int INSERT_CHUNK = 10_000;
+
+    private final MongoServer mongoServer;
+    private final ConfigurableApplicationContext context;
+
+    /**
+     * Start the stand-in and the application; properties are extra "--name=value" arguments
+     */
+    BenchmarkApp(String... properties) {
+        // The restart class loader is for development only
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        mongoServer = new MongoServer(new MemoryBackend());
+        String connectionString = mongoServer.bindAndGetConnectionString();
+
+        List<String> args = new ArrayList<>(List.of(
+            "--spring.data.mongodb.uri=" + connectionString + "/benchmark",
+            "--server.port=0",
+            "--spring.main.banner-mode=off",
+            "--logging.level.root=WARN",
+            "--logging.level.org.springframework.security=WARN",
+            "--logging.level.org.springframework.web=WARN",
+            // Benchmarks call reconcile() themselves
+            "--statistics.reconcile-interval-ms=3600000",
+            // The stand-in has no explain command; failed explains would run beside the measurement
+            "--mongo.profiler.explain=false"));
+        args.addAll(List.of(properties));
+        context = SpringApplication.run(WebAppApplication.class, args.toArray(String[]::new));
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Create count students through bulkCreateStudents, INSERT_CHUNK at a time, and return their ids
+     */
+    List<String> insertStudents(int count, IntFunction<Student> student) {
+        StudentService studentService = bean(StudentService.class);
+        List<String> ids = new ArrayList<>(count);
+        List<Student> chunk = new ArrayList<>(INSERT_CHUNK);
+        for (int i = 0; i < count; i++) {
+            chunk.add(student.apply(i));
+            if (chunk.size() == INSERT_CHUNK || i == count - 1) {
+                studentService.bulkCreateStudents(chunk).getRows().stream()
+                    .map(BulkRowResult::getId)
+                    .forEach(ids::add);
+                chunk = new ArrayList<>(INSERT_CHUNK);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Port the embedded server is listening on
+     */
+    int port() {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        mongoServer.shutdownNow();
+    }
+}
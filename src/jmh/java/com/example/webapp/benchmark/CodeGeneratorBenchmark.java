@@ -0,0 +1,117 @@
+package com.example.webapp.benchmark;
+
+import com.example.webapp.model.ClassRoom;
+import com.example.webapp.model.Student;
+import com.example.webapp.model.StudentStatus;
+import com.example.webapp.model.Subject;
+import com.example.webapp.service.ClassRoomService;
+import com.example.webapp.service.StudentService;
+import com.example.webapp.service.SubjectService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * createStudent, createSubject and createClass: generateNim and the subject and class code
+ * generators (prefix, sequence allocation, formatting) followed by the insert, for several
+ * sequence.block-size values
+ * Block size 1 is one counter round trip per code; larger blocks are served from memory.
+ * The documents created are removed before every iteration, so each one starts on the same collections.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodeGeneratorBenchmark {
+
+    private static final String NAME = "Kode Benchmark";
+
+    @Param({"1", "20", "100"})
+    public int blockSize;
+
+    private BenchmarkApp app;
+    private StudentService studentService;
+    private SubjectService subjectService;
+    private ClassRoomService classRoomService;
+    private MongoTemplate mongoTemplate;
+    private final AtomicLong next = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void start() {
+        app = new BenchmarkApp("--sequence.block-size=" + blockSize);
+        studentService = app.bean(StudentService.class);
+        subjectService = app.bean(SubjectService.class);
+        classRoomService = app.bean(ClassRoomService.class);
+        mongoTemplate = app.bean(MongoTemplate.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void removeCreated() {
+        Query created = new Query(Criteria.where("name").is(NAME));
+        mongoTemplate.remove(created, Student.class);
+        mongoTemplate.remove(created, Subject.class);
+        mongoTemplate.remove(created, ClassRoom.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        app.close();
+    }
+
+    // Batch 2099 keeps the NIM prefixes apart from the seed data
+
+    @Benchmark
+    public Student nim() {
+        return studentService.createStudent(student("Sistem Informasi"));
+    }
+
+    @Benchmark
+    public Subject subjectCode() {
+        Subject subject = new Subject();
+        subject.setName(NAME);
+        subject.setMajor("Sistem Informasi");
+        subject.setSks(3);
+        return subjectService.createSubject(subject);
+    }
+
+    @Benchmark
+    public ClassRoom classCode() {
+        ClassRoom classRoom = new ClassRoom();
+        classRoom.setName(NAME);
+        classRoom.setSubjectName("Basis Data");
+        classRoom.setSemester("Ganjil");
+        classRoom.setYear(2099);
+        return classRoomService.createClass(classRoom);
+    }
+
+    // Many threads creating students of the same major and batch
+    @Benchmark
+    @Threads(8)
+    public Student nimContended() {
+        return studentService.createStudent(student("Teknologi Informasi"));
+    }
+
+    private Student student(String major) {
+        return new Student(null, null, NAME, "kode" + next.incrementAndGet() + "@student.ac.id",
+            major, 2099, StudentStatus.ACTIVE, null);
+    }
+}
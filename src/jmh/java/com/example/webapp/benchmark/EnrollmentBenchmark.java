@@ -0,0 +1,103 @@
+package com.example.webapp.benchmark;
+
+import com.example.webapp.model.ClassRoom;
+import com.example.webapp.model.EnrollmentRequest;
+import com.example.webapp.model.EnrollmentResult;
+import com.example.webapp.model.Student;
+import com.example.webapp.model.StudentStatus;
+import com.example.webapp.service.ClassRoomService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enrollment spread over the seeded classes, at several student collection sizes
+ * addStudentToClass is one atomic $addToSet and never reads the students collection;
+ * updateEnrollment first resolves the batch through one findByIdIn, which is where the
+ * collection size can show.
+ * Classes are emptied before every iteration so their arrays stay the same size between runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EnrollmentBenchmark {
+
+    private static final int BATCH_SIZE = 20;
+
+    @Param({"1000", "100000", "1000000"})
+    public int students;
+
+    private BenchmarkApp app;
+    private ClassRoomService classRoomService;
+    private MongoTemplate mongoTemplate;
+    private CacheManager cacheManager;
+
+    private List<String> classIds;
+    private List<String> studentIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void start() {
+        app = new BenchmarkApp();
+        classRoomService = app.bean(ClassRoomService.class);
+        mongoTemplate = app.bean(MongoTemplate.class);
+        cacheManager = app.bean(CacheManager.class);
+
+        studentIds = app.insertStudents(students, i -> new Student(null, null, "Mahasiswa Benchmark",
+            "mhs" + i + "@student.ac.id", "Sistem Informasi", 2025, StudentStatus.ACTIVE, null));
+        classIds = classRoomService.getAllClasses().stream().map(ClassRoom::getId).toList();
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyClasses() {
+        mongoTemplate.updateMulti(new Query(), new Update().set("studentIds", List.of()), ClassRoom.class);
+        cacheManager.getCache("classes").clear();
+        next = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        app.close();
+    }
+
+    @Benchmark
+    public ClassRoom addStudentToClass() {
+        int i = next++;
+        return classRoomService.addStudentToClass(classIds.get(i % classIds.size()),
+            studentIds.get(i / classIds.size() % studentIds.size()));
+    }
+
+    @Benchmark
+    public Optional<EnrollmentResult> updateEnrollment() {
+        int i = next++;
+        EnrollmentRequest request = new EnrollmentRequest();
+        List<String> add = new ArrayList<>(BATCH_SIZE);
+        for (int k = 0; k < BATCH_SIZE; k++) {
+            add.add(studentIds.get((i / classIds.size() * BATCH_SIZE + k) % studentIds.size()));
+        }
+        request.setAdd(add);
+        return classRoomService.updateEnrollment(classIds.get(i % classIds.size()), request);
+    }
+}
@@ -0,0 +1,412 @@
+package com.example.webapp.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-to-end HTTP load test: a mixed workload against the REST API of the application started in process
+ * Latencies are recorded per endpoint in HdrHistograms and written with the throughput to a JSON report.
+ *
+ * Options, as "--name=value" arguments:
+ *   threads    platform or virtual request threads on the server (default platform)
+ *   clients    concurrent client connections (default 64)
+ *   warmup     seconds before measuring (default 10)
+ *   duration   seconds measured (default 30)
+ *   rate       total requests per second; 0 runs closed-loop, each client sending as soon as
+ *              its previous response arrived (default 0)
+ *   students   students created through the bulk API before the run; get and enroll pick
+ *              among exactly these (default 10000)
+ *   mix        endpoint weights (default list:30,get:40,create:10,enroll:10,statistics:10)
+ *   out        report file (default target/load-test-result.json)
+ *
+ * With a rate every request has an intended start time and latency is measured from it, so a
+ * stalled server shows up in the percentiles instead of just slowing the clients down.
+ */
+public final class LoadTest {
+
+    private static final String[] ENDPOINTS = {"list", "get", "create", "enroll", "statistics"};
+
+    private static final ObjectMapper jsonMapper = new ObjectMapper()
+        .enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Map<String, String> options;
+    private final HttpClient client;
+    private final AtomicLong created = new AtomicLong();
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+
+    private String baseUrl;
+    private List<String> studentIds;
+    private List<String> classIds;
+    private String[] schedule;
+    private volatile boolean measuring;
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .cookieHandler(new CookieManager())
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        for (String endpoint : ENDPOINTS) {
+            stats.put(endpoint, new EndpointStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("threads", "platform");
+        options.put("clients", "64");
+        options.put("warmup", "10");
+        options.put("duration", "30");
+        options.put("rate", "0");
+        options.put("students", "10000");
+        options.put("mix", "list:30,get:40,create:10,enroll:10,statistics:10");
+        options.put("out", "target/load-test-result.json");
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            if (!options.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown option " + name);
+            }
+            options.put(name, arg.substring(arg.indexOf('=') + 1));
+        }
+
+        boolean virtualThreads = switch (options.get("threads")) {
+            case "virtual" -> true;
+            case "platform" -> false;
+            default -> throw new IllegalArgumentException("threads must be virtual or platform");
+        };
+
+        try (BenchmarkApp app = new BenchmarkApp("--spring.threads.virtual.enabled=" + virtualThreads)) {
+            new LoadTest(options).run(app.port());
+        }
+    }
+
+    private void run(int port) throws Exception {
+        baseUrl = "http://localhost:" + port;
+        schedule = schedule(options.get("mix"));
+        login();
+        studentIds = seedStudents(intOption("students"));
+        classIds = idsOf(send(get("/api/classes")));
+        System.out.printf("Load test: %d students, %d classes, %s%n", studentIds.size(), classIds.size(), options);
+
+        int clients = intOption("clients");
+        long warmupNanos = TimeUnit.SECONDS.toNanos(intOption("warmup"));
+        long durationNanos = TimeUnit.SECONDS.toNanos(intOption("duration"));
+        double rate = Double.parseDouble(options.get("rate"));
+        // Every client sends its share of the rate
+        long intervalNanos = rate > 0 ? (long) (clients * 1e9 / rate) : 0;
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+
+        List<Thread> workers = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            // Stagger paced clients so they do not fire in bursts
+            long firstStart = start + (intervalNanos > 0 ? intervalNanos * i / clients : 0);
+            workers.add(Thread.ofPlatform().name("load-client-" + i)
+                .start(() -> drive(firstStart, intervalNanos, end)));
+        }
+
+        sleepUntil(measureFrom);
+        stats.values().forEach(EndpointStats::reset);
+        measuring = true;
+        long measuredFrom = System.nanoTime();
+        sleepUntil(end);
+        measuring = false;
+        double seconds = (System.nanoTime() - measuredFrom) / 1e9;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        Map<String, Object> report = report(seconds);
+        File out = new File(options.get("out"));
+        if (out.getParentFile() != null) {
+            out.getParentFile().mkdirs();
+        }
+        jsonMapper.writeValue(out, report);
+        printSummary(report);
+        System.out.println("Report written to " + out.getPath());
+    }
+
+    /**
+     * One client: pick an endpoint by weight, send, record; paced when intervalNanos is set
+     */
+    private void drive(long firstStart, long intervalNanos, long end) {
+        long intendedStart = firstStart;
+        while (true) {
+            if (intervalNanos > 0) {
+                sleepUntil(intendedStart);
+            } else {
+                intendedStart = System.nanoTime();
+            }
+            if (intendedStart >= end) {
+                return;
+            }
+
+            String endpoint = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+            int status;
+            try {
+                status = send(request(endpoint)).statusCode();
+            } catch (IOException e) {
+                status = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (measuring) {
+                stats.get(endpoint).record(System.nanoTime() - intendedStart, status);
+            }
+            intendedStart += intervalNanos;
+        }
+    }
+
+    private HttpRequest request(String endpoint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String studentId = studentIds.get(random.nextInt(studentIds.size()));
+        return switch (endpoint) {
+            case "list" -> get("/api/students/page?size=20&sort=name");
+            case "get" -> get("/api/students/" + studentId);
+            case "create" -> post("/api/students", studentJson(created.incrementAndGet()));
+            case "enroll" -> post("/api/classes/" + classIds.get(random.nextInt(classIds.size()))
+                + "/students/" + studentId, "");
+            case "statistics" -> get("/api/students/statistics");
+            default -> throw new IllegalArgumentException("Unknown endpoint " + endpoint);
+        };
+    }
+
+    private void login() throws IOException, InterruptedException {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString("username=admin&password=admin"))
+            .build());
+        String location = response.headers().firstValue("Location").orElse("");
+        if (response.statusCode() != 302 || location.contains("error")) {
+            throw new IllegalStateException("Login failed: " + response.statusCode() + " " + location);
+        }
+    }
+
+    /**
+     * Create the students through the bulk API; returns their ids, so get and enroll spread over all of them
+     */
+    private List<String> seedStudents(int count) throws IOException, InterruptedException {
+        if (count < 1) {
+            throw new IllegalArgumentException("students must be at least 1");
+        }
+        List<String> ids = new ArrayList<>(count);
+        for (int from = 0; from < count; from += 1000) {
+            StringBuilder body = new StringBuilder("[");
+            for (int i = from; i < Math.min(count, from + 1000); i++) {
+                body.append(i > from ? "," : "").append(studentJson(-i - 1));
+            }
+            HttpResponse<String> response = send(post("/api/students/bulk", body.append("]").toString()));
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding students failed: " + response.statusCode());
+            }
+            for (JsonNode row : jsonMapper.readTree(response.body()).get("rows")) {
+                if (row.get("success").asBoolean()) {
+                    ids.add(row.get("id").asText());
+                }
+            }
+        }
+        if (ids.size() != count) {
+            throw new IllegalStateException("Seeded " + ids.size() + " of " + count + " students");
+        }
+        return ids;
+    }
+
+    private static String studentJson(long n) {
+        return "{\"name\":\"Mahasiswa Beban\",\"email\":\"beban" + n + "@student.ac.id\","
+            + "\"major\":\"Sistem Informasi\",\"batch\":2025,\"status\":\"ACTIVE\"}";
+    }
+
+    private static List<String> idsOf(HttpResponse<String> response) throws IOException {
+        List<String> ids = new ArrayList<>();
+        for (JsonNode node : jsonMapper.readTree(response.body())) {
+            ids.add(node.get("id").asText());
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No ids returned for " + response.uri());
+        }
+        return ids;
+    }
+
+    /**
+     * Endpoint names repeated by weight, for uniform random picks
+     */
+    private static String[] schedule(String mix) {
+        List<String> schedule = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2 || !List.of(ENDPOINTS).contains(parts[0].trim())) {
+                throw new IllegalArgumentException("Invalid mix entry " + entry);
+            }
+            for (int i = Integer.parseInt(parts[1].trim()); i > 0; i--) {
+                schedule.add(parts[0].trim());
+            }
+        }
+        if (schedule.isEmpty()) {
+            throw new IllegalArgumentException("Mix has no weights");
+        }
+        return schedule.toArray(String[]::new);
+    }
+
+    private Map<String, Object> report(double seconds) {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        Histogram all = new Histogram(3);
+        long requests = 0;
+        long errors = 0;
+        for (Map.Entry<String, EndpointStats> entry : stats.entrySet()) {
+            EndpointStats endpointStats = entry.getValue();
+            Histogram histogram = endpointStats.histogram();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            all.add(histogram);
+            requests += histogram.getTotalCount();
+            errors += endpointStats.errors();
+            Map<String, Object> summary = summary(histogram, endpointStats.errors(), seconds);
+            summary.put("statusCodes", endpointStats.statusCodes());
+            endpoints.put(entry.getKey(), summary);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("options", options);
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.put("durationSeconds", seconds);
+        report.put("latencyUnit", "ms");
+        report.put("total", summary(all, errors, seconds));
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    private static Map<String, Object> summary(Histogram histogram, long errors, double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", histogram.getTotalCount());
+        summary.put("errors", errors);
+        summary.put("throughput", histogram.getTotalCount() / seconds);
+        summary.put("mean", histogram.getMean() / 1000.0);
+        summary.put("p50", histogram.getValueAtPercentile(50) / 1000.0);
+        summary.put("p90", histogram.getValueAtPercentile(90) / 1000.0);
+        summary.put("p99", histogram.getValueAtPercentile(99) / 1000.0);
+        summary.put("p999", histogram.getValueAtPercentile(99.9) / 1000.0);
+        summary.put("max", histogram.getMaxValue() / 1000.0);
+        return summary;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void printSummary(Map<String, Object> report) {
+        System.out.printf("%n%-12s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+            "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "mean ms");
+        Map<String, Object> rows = new LinkedHashMap<>((Map<String, Object>) report.get("endpoints"));
+        rows.put("total", report.get("total"));
+        rows.forEach((name, value) -> {
+            Map<String, Object> row = (Map<String, Object>) value;
+            System.out.printf("%-12s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", name,
+                row.get("requests"), row.get("errors"), row.get("throughput"), row.get("p50"),
+                row.get("p99"), row.get("p999"), row.get("max"), row.get("mean"));
+        });
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private int intOption(String name) {
+        return Integer.parseInt(options.get(name));
+    }
+
+    private static void sleepUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Latencies in microseconds and response codes of one endpoint; safe for concurrent clients
+     */
+    private static final class EndpointStats {
+
+        private final Recorder recorder = new Recorder(3);
+        private final LongAdder errors = new LongAdder();
+        private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+        private Histogram histogram;
+
+        void record(long latencyNanos, int status) {
+            recorder.recordValue(Math.max(1, latencyNanos / 1000));
+            statusCodes.computeIfAbsent(status, s -> new LongAdder()).increment();
+            if (status < 200 || status >= 300) {
+                errors.increment();
+            }
+        }
+
+        void reset() {
+            recorder.reset();
+            errors.reset();
+            statusCodes.clear();
+        }
+
+        Histogram histogram() {
+            if (histogram == null) {
+                histogram = recorder.getIntervalHistogram();
+            }
+            return histogram;
+        }
+
+        long errors() {
+            return errors.sum();
+        }
+
+        Map<String, Long> statusCodes() {
+            Map<String, Long> codes = new TreeMap<>();
+            statusCodes.forEach((status, count) -> codes.put(status == 0 ? "io-error" : status.toString(), count.sum()));
+            return codes;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.webapp.benchmark;
+
+import com.example.webapp.model.ClassRoom;
+import com.example.webapp.model.Student;
+import com.example.webapp.model.StudentStatus;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of Student and ClassRoom lists, as the list endpoints write them
+ * Written to a discarding stream, so only serialization is measured; no database involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SerializationBenchmark {
+
+    private static final int STUDENTS_PER_CLASS = 40;
+
+    @Param({"1000", "100000", "1000000"})
+    public int documents;
+
+    // Configured like the ObjectMapper Spring MVC uses, which also leaves the response stream open
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+        .build();
+    private final OutputStream discard = OutputStream.nullOutputStream();
+
+    private List<Student> students;
+    private List<ClassRoom> classes;
+
+    @Setup(Level.Trial)
+    public void createDocuments() {
+        students = new ArrayList<>(documents);
+        for (int i = 0; i < documents; i++) {
+            students.add(new Student(new ObjectId().toHexString(), String.format("10%04d%04d", 2010 + i % 20, i % 10_000),
+                "Mahasiswa Benchmark", "mhs" + i + "@student.ac.id", "Sistem Informasi", 2010 + i % 20,
+                StudentStatus.ACTIVE, (long) i % 5));
+        }
+
+        // Classes share the enrolled id strings, so a million classes still fit in the heap
+        List<String> enrolled = students.stream().limit(STUDENTS_PER_CLASS).map(Student::getId).toList();
+        classes = new ArrayList<>(documents);
+        for (int i = 0; i < documents; i++) {
+            ClassRoom classRoom = new ClassRoom();
+            classRoom.setId(new ObjectId().toHexString());
+            classRoom.setCode(String.format("KLS%03d", i % 1000));
+            classRoom.setName("Basis Data - 2024 - Ganjil");
+            classRoom.setSubjectId(new ObjectId().toHexString());
+            classRoom.setSubjectName("Basis Data");
+            classRoom.setSemester("Ganjil");
+            classRoom.setYear(2024);
+            classRoom.setStudentIds(enrolled);
+            classRoom.setVersion((long) i % 5);
+            classes.add(classRoom);
+        }
+    }
+
+    @Benchmark
+    public void students() throws IOException {
+        objectMapper.writeValue(discard, students);
+    }
+
+    @Benchmark
+    public void classes() throws IOException {
+        objectMapper.writeValue(discard, classes);
+    }
+}
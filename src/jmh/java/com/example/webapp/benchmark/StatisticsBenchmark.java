@@ -0,0 +1,71 @@
+package com.example.webapp.benchmark;
+
+import com.example.webapp.model.Student;
+import com.example.webapp.model.StudentStatus;
+import com.example.webapp.service.StudentService;
+import com.example.webapp.service.StudentStatisticsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dashboard statistics: getStatistics (served from the in-memory counters) and the
+ * reconcile that recounts them with aggregations, at several collection sizes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StatisticsBenchmark {
+
+    private static final String[] MAJORS = {"Sistem Informasi", "Teknologi Informasi"};
+    private static final StudentStatus[] STATUSES = StudentStatus.values();
+
+    @Param({"1000", "100000", "1000000"})
+    public int students;
+
+    private BenchmarkApp app;
+    private StudentService studentService;
+    private StudentStatisticsService statisticsService;
+
+    @Setup(Level.Trial)
+    public void start() {
+        app = new BenchmarkApp();
+        studentService = app.bean(StudentService.class);
+        statisticsService = app.bean(StudentStatisticsService.class);
+
+        app.insertStudents(students, i -> new Student(null, null, "Mahasiswa Benchmark", "mhs" + i + "@student.ac.id",
+            MAJORS[i % MAJORS.length], 2010 + i % 20, STATUSES[i % STATUSES.length], null));
+        statisticsService.reconcile();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        app.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> getStatistics() {
+        return studentService.getStatistics();
+    }
+
+    @Benchmark
+    public void reconcile() {
+        statisticsService.reconcile();
+    }
+}
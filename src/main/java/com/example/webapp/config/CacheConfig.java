@@ -0,0 +1,103 @@
+package com.example.webapp.config;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    /**
+     * Caffeine caches configured from spring.cache.*, whose loads never cache a document
+     * that a concurrent write has already replaced
+     */
+    @Bean
+    public CaffeineCacheManager cacheManager(CacheProperties cacheProperties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new LoadCheckedCaffeineCache(name, cache, isAllowNullValues());
+            }
+        };
+        String spec = cacheProperties.getCaffeine().getSpec();
+        if (StringUtils.hasText(spec)) {
+            cacheManager.setCacheSpecification(spec);
+        }
+        cacheManager.setCacheNames(cacheProperties.getCacheNames());
+        return cacheManager;
+    }
+
+    /**
+     * Caffeine cache that drops a loaded value when an eviction ran during the load
+     * A read can load a document, then a write evicts the key, then the read caches what it
+     * loaded: the old document. Loads go through get(key, loader) (@Cacheable with sync = true),
+     * and an eviction counter read before the load tells whether that happened. The loader runs
+     * without holding a lock, so a MongoDB read never blocks other keys or pins a virtual thread.
+     */
+    static class LoadCheckedCaffeineCache extends CaffeineCache {
+
+        private final AtomicLong evictions = new AtomicLong();
+
+        LoadCheckedCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                                 boolean allowNullValues) {
+            super(name, cache, allowNullValues);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            ValueWrapper cached = get(key);
+            if (cached != null) {
+                return (T) cached.get();
+            }
+
+            long before = evictions.get();
+            T value;
+            try {
+                value = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+
+            // Put first and check after, so an eviction racing with the put is seen either way
+            put(key, value);
+            if (evictions.get() != before) {
+                super.evict(key);
+            }
+            return value;
+        }
+
+        @Override
+        public void evict(Object key) {
+            evictions.incrementAndGet();
+            super.evict(key);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            evictions.incrementAndGet();
+            return super.evictIfPresent(key);
+        }
+
+        @Override
+        public void clear() {
+            evictions.incrementAndGet();
+            super.clear();
+        }
+
+        @Override
+        public boolean invalidate() {
+            evictions.incrementAndGet();
+            return super.invalidate();
+        }
+    }
+}
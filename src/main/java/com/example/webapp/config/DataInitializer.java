@@ -1,27 +1,35 @@
 package com.example.webapp.config;
 
 import com.example.webapp.model.ClassRoom;
+import com.example.webapp.model.ImportReport;
 import com.example.webapp.model.Student;
 import com.example.webapp.model.Subject;
 import com.example.webapp.service.ClassRoomService;
+import com.example.webapp.service.ImportService;
 import com.example.webapp.service.StudentService;
 import com.example.webapp.service.SubjectService;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Component;
 
 import java.io.InputStream;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Data initializer component
  * Runs on application startup to populate initial data from JSON files
  * Uses Service layer instead of direct Repository access
+ * Files are streamed through ImportService, never loaded into memory whole
  */
 @Slf4j
 @Component
@@ -36,26 +44,42 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private ClassRoomService classRoomService;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private AsyncTaskExecutor taskExecutor;
 
     @Override
     public void run(String... args) {
         try {
             log.info("Starting data initialization...");
 
-            // Only initialize if collections are empty
-            if (studentService.countStudents() == 0) {
-                initializeStudents();
-            } else {
-                log.info("Students collection already has data, skipping initialization");
-            }
+            // Documents written before versioning must get a version before any update
+            migrateVersionFields();
 
-            if (subjectService.countSubjects() == 0) {
-                initializeSubjects();
-            } else {
-                log.info("Subjects collection already has data, checking for major field migration...");
-                migrateSubjectMajors();
-            }
+            // Only initialize if collections are empty
+            // Students and subjects are independent, so they load side by side; classes refer to both
+            runConcurrently(
+                () -> {
+                    if (studentService.countStudents() == 0) {
+                        initializeStudents();
+                    } else {
+                        log.info("Students collection already has data, skipping initialization");
+                    }
+                },
+                () -> {
+                    if (subjectService.countSubjects() == 0) {
+                        initializeSubjects();
+                    } else {
+                        log.info("Subjects collection already has data, checking for major field migration...");
+                        migrateSubjectMajors();
+                    }
+                });
 
             if (classRoomService.countClasses() == 0) {
                 initializeClasses();
@@ -63,35 +87,43 @@ public class DataInitializer implements CommandLineRunner {
                 log.info("Classes collection already has data, skipping initialization");
             }
 
+            // Rebuild code sequence counters from the stored data
+            runConcurrently(
+                studentService::syncNimSequences,
+                subjectService::syncCodeSequences,
+                classRoomService::syncCodeSequences);
+            log.info("Code sequences synchronized with existing data");
+
             log.info("Data initialization completed");
         } catch (Exception e) {
             log.error("Error initializing data: {}", e.getMessage(), e);
         }
     }
 
+    /**
+     * Run independent startup steps on the application task executor (virtual threads
+     * when spring.threads.virtual.enabled is set) and wait for all of them
+     */
+    private void runConcurrently(Runnable... steps) {
+        CompletableFuture<?>[] running = new CompletableFuture<?>[steps.length];
+        for (int i = 0; i < steps.length; i++) {
+            running[i] = CompletableFuture.runAsync(steps[i], taskExecutor);
+        }
+        CompletableFuture.allOf(running).join();
+    }
+
     /**
      * Load students from JSON file
      */
     private void initializeStudents() {
-        try {
+        try (InputStream inputStream = new ClassPathResource("data/students.json").getInputStream()) {
             log.info("Loading students from students.json...");
 
-            // Read JSON file from resources/data folder
-            ClassPathResource resource = new ClassPathResource("data/students.json");
-            InputStream inputStream = resource.getInputStream();
+            // Stream records from the file and save them chunk by chunk
+            ImportReport report = importService.importStudents(inputStream, "json", "students.json");
+            logRejectedRows(report);
 
-            // Parse JSON to List of Student objects
-            List<Student> students = objectMapper.readValue(
-                inputStream,
-                new TypeReference<List<Student>>() {}
-            );
-
-            // Save all students using service layer
-            for (Student student : students) {
-                studentService.createStudent(student);
-            }
-
-            log.info("Successfully initialized {} students from students.json", students.size());
+            log.info("Successfully initialized {} students from students.json", report.getCreated());
 
         } catch (Exception e) {
             log.error("Failed to load students from JSON: {}", e.getMessage(), e);
@@ -102,25 +134,14 @@ public class DataInitializer implements CommandLineRunner {
      * Load subjects from JSON file
      */
     private void initializeSubjects() {
-        try {
+        try (InputStream inputStream = new ClassPathResource("data/subjects.json").getInputStream()) {
             log.info("Loading subjects from subjects.json...");
 
-            // Read JSON file from resources/data folder
-            ClassPathResource resource = new ClassPathResource("data/subjects.json");
-            InputStream inputStream = resource.getInputStream();
-
-            // Parse JSON to List of Subject objects
-            List<Subject> subjects = objectMapper.readValue(
-                inputStream,
-                new TypeReference<List<Subject>>() {}
-            );
+            // Stream records from the file and save them chunk by chunk
+            ImportReport report = importService.importSubjects(inputStream, "json", "subjects.json");
+            logRejectedRows(report);
 
-            // Save all subjects using service layer
-            for (Subject subject : subjects) {
-                subjectService.createSubject(subject);
-            }
-
-            log.info("Successfully initialized {} subjects from subjects.json", subjects.size());
+            log.info("Successfully initialized {} subjects from subjects.json", report.getCreated());
 
         } catch (Exception e) {
             log.error("Failed to load subjects from JSON: {}", e.getMessage(), e);
@@ -167,53 +188,53 @@ public class DataInitializer implements CommandLineRunner {
     }
 
     /**
-     * Load classes from JSON file
+     * Set version 0 on documents stored before @Version was added
+     * Without it Spring Data would treat them as new and insert a duplicate on save.
+     * Works on raw documents, so it goes through MongoTemplate rather than the services.
      */
-    private void initializeClasses() {
+    private void migrateVersionFields() {
         try {
-            log.info("Loading classes from classes.json...");
+            Query unversioned = new Query(Criteria.where("version").exists(false));
+            Update initial = new Update().set("version", 0L);
 
-            // Read JSON file from resources/data folder
-            ClassPathResource resource = new ClassPathResource("data/classes.json");
-            InputStream inputStream = resource.getInputStream();
-
-            // Parse JSON to List of ClassRoom objects
-            List<ClassRoom> classes = objectMapper.readValue(
-                inputStream,
-                new TypeReference<List<ClassRoom>>() {}
-            );
+            long migrated = 0;
+            for (Class<?> type : List.of(Student.class, Subject.class, ClassRoom.class)) {
+                migrated += mongoTemplate.updateMulti(unversioned, initial, type).getModifiedCount();
+            }
 
-            // Get all subjects to match subject names to IDs
-            List<Subject> allSubjects = subjectService.getAllSubjects();
+            if (migrated > 0) {
+                log.info("Initialized version field on {} documents", migrated);
+            }
+        } catch (Exception e) {
+            log.error("Failed to migrate version fields: {}", e.getMessage(), e);
+        }
+    }
 
-            // Save all classes using service layer
-            for (ClassRoom classRoom : classes) {
-                // Try to find matching subject by name
-                allSubjects.stream()
-                    .filter(s -> s.getName().equals(classRoom.getSubjectName()))
-                    .findFirst()
-                    .ifPresent(subject -> classRoom.setSubjectId(subject.getId()));
-
-                // Convert student NIMs to student IDs
-                if (classRoom.getStudentNims() != null && !classRoom.getStudentNims().isEmpty()) {
-                    List<String> studentIds = new ArrayList<>();
-                    for (String nim : classRoom.getStudentNims()) {
-                        studentService.getAllStudents().stream()
-                            .filter(s -> nim.equals(s.getNim()))
-                            .findFirst()
-                            .ifPresent(student -> studentIds.add(student.getId()));
-                    }
-                    classRoom.setStudentIds(studentIds);
-                    log.info("Added {} students to class {}", studentIds.size(), classRoom.getName());
-                }
+    /**
+     * Load classes from JSON file
+     * Subject names and student NIMs are resolved to IDs by the import pipeline
+     */
+    private void initializeClasses() {
+        try (InputStream inputStream = new ClassPathResource("data/classes.json").getInputStream()) {
+            log.info("Loading classes from classes.json...");
 
-                classRoomService.createClass(classRoom);
-            }
+            // Stream records from the file and save them chunk by chunk
+            ImportReport report = importService.importClasses(inputStream, "json", "classes.json");
+            logRejectedRows(report);
 
-            log.info("Successfully initialized {} classes from classes.json", classes.size());
+            log.info("Successfully initialized {} classes from classes.json", report.getCreated());
 
         } catch (Exception e) {
             log.error("Failed to load classes from JSON: {}", e.getMessage(), e);
         }
     }
+
+    /**
+     * Log the rows an import rejected
+     */
+    private void logRejectedRows(ImportReport report) {
+        for (String error : report.getErrors()) {
+            log.warn("Skipped in {}: {}", report.getSource(), error);
+        }
+    }
 }
@@ -0,0 +1,40 @@
+package com.example.webapp.config;
+
+import com.example.webapp.service.QueryProfilerService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class MongoConfig {
+
+    /**
+     * Connection pool limits
+     * With virtual threads every request gets its own thread, so the pool is what
+     * bounds concurrent queries; requests beyond it queue for a connection.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolCustomizer(
+            @Value("${mongo.pool.max-size:100}") int maxSize,
+            @Value("${mongo.pool.max-wait-ms:10000}") long maxWaitMs) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+            .maxSize(maxSize)
+            .maxWaitTime(maxWaitMs, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Query profiler, notified of every command the driver sends
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer queryProfilerCustomizer(QueryProfilerService queryProfilerService,
+            @Value("${mongo.profiler.enabled:true}") boolean enabled) {
+        return settings -> {
+            if (enabled) {
+                settings.addCommandListener(queryProfilerService);
+            }
+        };
+    }
+}
@@ -1,7 +1,13 @@
 package com.example.webapp.config;
 
+import jakarta.servlet.DispatcherType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.core.userdetails.User;
@@ -11,7 +17,9 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.util.StringUtils;
 
+@Slf4j
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
@@ -22,7 +30,8 @@ public class SecurityConfig {
     }
 
     @Bean
-    public UserDetailsService userDetailsService() {
+    public UserDetailsService userDetailsService(@Value("${metrics.scrape.username}") String scrapeUsername,
+                                                 @Value("${metrics.scrape.password:}") String scrapePassword) {
         // Create admin user
         UserDetails admin = User.builder()
             .username("admin")
@@ -37,7 +46,40 @@ public class SecurityConfig {
             .roles("USER")
             .build();
 
-        return new InMemoryUserDetailsManager(admin, user);
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager(admin, user);
+
+        // Prometheus scraper, may only read /actuator/prometheus; only exists once a password is set
+        if (StringUtils.hasText(scrapePassword)) {
+            users.createUser(User.builder()
+                .username(scrapeUsername)
+                .password(passwordEncoder().encode(scrapePassword))
+                .roles("METRICS")
+                .build());
+        } else {
+            log.info("No metrics.scrape.password set, the metrics scrape user is disabled");
+        }
+
+        return users;
+    }
+
+    /**
+     * Actuator endpoints also accept HTTP Basic, so Prometheus can scrape with basic_auth
+     * The rest of the application keeps form and OAuth2 login only
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher(EndpointRequest.toAnyEndpoint())
+            .csrf(csrf -> csrf.disable())
+            .authorizeHttpRequests(authorize -> authorize
+                .requestMatchers(EndpointRequest.to("health")).permitAll()
+                .requestMatchers(EndpointRequest.to("prometheus")).hasAnyRole("METRICS", "ADMIN")
+                .anyRequest().hasRole("ADMIN")
+            )
+            .httpBasic(Customizer.withDefaults());
+
+        return http.build();
     }
 
     @Bean
@@ -45,12 +87,19 @@ public class SecurityConfig {
         http
             .csrf(csrf -> csrf.disable())  // Disable CSRF for development
             .authorizeHttpRequests(authorize -> authorize
+                // Error pages of a refused request (e.g. the actuator's 401) keep their status
+                .dispatcherTypeMatchers(DispatcherType.ERROR).permitAll()
                 .requestMatchers("/", "/home.html", "/login.html", "/login-form.html",
                                 "/css/**", "/js/**", "/assets/**").permitAll()
                 // Admin-only endpoints for create, update, delete
                 .requestMatchers("/api/students/**").hasAnyRole("ADMIN", "USER")
                 .requestMatchers("/api/subjects/**").hasAnyRole("ADMIN", "USER")
                 .requestMatchers("/api/classes/**").hasRole("ADMIN")
+                // Reactive read API (only present in -Preactive builds), same roles as above
+                .requestMatchers("/api/reactive/classes/**").hasRole("ADMIN")
+                .requestMatchers("/api/reactive/**").hasAnyRole("ADMIN", "USER")
+                .requestMatchers("/api/import/**").hasRole("ADMIN")
+                .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
             )
             .formLogin(form -> form
@@ -0,0 +1,87 @@
+package com.example.webapp.controller;
+
+import com.example.webapp.model.CacheMetrics;
+import com.example.webapp.model.IndexStatus;
+import com.example.webapp.model.QueryProfile;
+import com.example.webapp.service.CacheService;
+import com.example.webapp.service.IndexService;
+import com.example.webapp.service.QueryProfilerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST Controller for operational endpoints (Admin only)
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private QueryProfilerService queryProfilerService;
+
+    @Autowired
+    private IndexService indexService;
+
+    /**
+     * Get entity cache hit/miss/eviction counters
+     */
+    @GetMapping("/caches")
+    public ResponseEntity<List<CacheMetrics>> getCacheMetrics() {
+        return ResponseEntity.ok(cacheService.getCacheMetrics());
+    }
+
+    /**
+     * Clear all entity caches (e.g. after editing documents directly in MongoDB)
+     */
+    @DeleteMapping("/caches")
+    public ResponseEntity<Void> clearCaches() {
+        cacheService.clearCaches();
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Get the most expensive MongoDB query shapes with their plans
+     * e.g. /api/admin/queries?limit=10&sort=max (sort: total, mean, max, count, slowCount)
+     */
+    @GetMapping("/queries")
+    public ResponseEntity<List<QueryProfile>> getTopQueries(@RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "total") String sort) {
+        try {
+            return ResponseEntity.ok(queryProfilerService.getTopQueries(limit, sort));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Reset the query profiler (e.g. after adding an index)
+     */
+    @DeleteMapping("/queries")
+    public ResponseEntity<Void> resetQueries() {
+        queryProfilerService.reset();
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Compare the declared indexes with the ones in MongoDB
+     */
+    @GetMapping("/indexes")
+    public ResponseEntity<List<IndexStatus>> getIndexReport() {
+        return ResponseEntity.ok(indexService.getIndexReport());
+    }
+
+    /**
+     * Build missing indexes now (e.g. after removing duplicates that made a unique index fail)
+     */
+    @PostMapping("/indexes")
+    public ResponseEntity<List<IndexStatus>> ensureIndexes() {
+        indexService.ensureIndexes();
+        return ResponseEntity.ok(indexService.getIndexReport());
+    }
+}
@@ -1,13 +1,25 @@
 package com.example.webapp.controller;
 
+import com.example.webapp.model.BulkResult;
 import com.example.webapp.model.ClassRoom;
+import com.example.webapp.model.ClassRoomFilter;
+import com.example.webapp.model.CursorPage;
+import com.example.webapp.model.EnrollmentRequest;
+import com.example.webapp.model.EnrollmentResult;
+import com.example.webapp.model.RosterEntry;
 import com.example.webapp.service.ClassRoomService;
+import com.example.webapp.service.ExportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -21,13 +33,43 @@ public class ClassRoomController {
     @Autowired
     private ClassRoomService classRoomService;
 
+    @Autowired
+    private ExportService exportService;
+
     /**
      * Get all classes
      */
     @GetMapping
     public ResponseEntity<List<ClassRoom>> getAllClasses() {
         List<ClassRoom> classes = classRoomService.getAllClasses();
-        return ResponseEntity.ok(classes);
+        return ETags.ok(ETags.ofAll(classes, "")).body(classes);
+    }
+
+    /**
+     * Get one page of classes with optional filters, sorted by code
+     * e.g. /api/classes/page?semester=Ganjil&year=2024&subjectId=...&size=20&cursor=...
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<ClassRoom>> getClassPage(ClassRoomFilter filter) {
+        try {
+            CursorPage<ClassRoom> page = classRoomService.getClassPage(filter);
+            return ETags.ok(ETags.ofAll(page.getItems(), page.getNextCursor())).body(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Export all classes as NDJSON (default) or CSV, streamed from a database cursor
+     * e.g. /api/classes/export?format=csv&gzip=true
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportClasses(@RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        if (!exportService.isSupportedFormat(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ExportResponses.stream("classes", format, gzip, output -> exportService.exportClasses(output, format));
     }
 
     /**
@@ -36,10 +78,29 @@ public class ClassRoomController {
     @GetMapping("/{id}")
     public ResponseEntity<ClassRoom> getClassById(@PathVariable String id) {
         Optional<ClassRoom> classRoom = classRoomService.getClassById(id);
-        return classRoom.map(ResponseEntity::ok)
+        return classRoom.map(c -> ETags.ok(ETags.of(c)).body(c))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Get one page of the students enrolled in a class, sorted by NIM
+     * e.g. /api/classes/{id}/students?size=50&cursor=...
+     * The ETag covers the page content; If-None-Match gets 304 Not Modified when it is unchanged
+     */
+    @GetMapping("/{id}/students")
+    public ResponseEntity<CursorPage<RosterEntry>> getClassRoster(@PathVariable String id,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+        Optional<CursorPage<RosterEntry>> roster;
+        try {
+            roster = classRoomService.getClassRoster(id, cursor, size);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return roster.map(page -> ETags.ok(ETags.ofContent(page)).body(page))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
     /**
      * Create new class
      */
@@ -53,19 +114,53 @@ public class ClassRoomController {
         }
     }
 
+    /**
+     * Create many classes in one request
+     * Returns a result for every row; invalid rows do not stop the others
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkResult> bulkCreateClasses(@RequestBody List<ClassRoom> classes) {
+        return ResponseEntity.ok(classRoomService.bulkCreateClasses(classes));
+    }
+
     /**
      * Update existing class
      */
     @PutMapping("/{id}")
-    public ResponseEntity<ClassRoom> updateClass(@PathVariable String id, @RequestBody ClassRoom classRoom) {
+    public ResponseEntity<ClassRoom> updateClass(@PathVariable String id, @RequestBody ClassRoom classRoom,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
+            // If-Match takes precedence over the version in the body
+            Long expectedVersion = ETags.versionOf(ifMatch);
+            if (expectedVersion != null) {
+                classRoom.setVersion(expectedVersion);
+            }
             ClassRoom updated = classRoomService.updateClass(id, classRoom);
-            return ResponseEntity.ok(updated);
+            return ResponseEntity.ok().eTag(ETags.of(updated)).body(updated);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    /**
+     * Update only the fields in a JSON Merge Patch body; a null member removes the field
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ClassRoom> patchClass(@PathVariable String id, @RequestBody Map<String, Object> patch,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            return classRoomService.patchClass(id, patch, ETags.versionOf(ifMatch))
+                .map(classRoom -> ResponseEntity.ok().eTag(ETags.of(classRoom)).body(classRoom))
+                .orElse(ResponseEntity.notFound().build());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Delete class
      */
@@ -104,4 +199,20 @@ public class ClassRoomController {
             return ResponseEntity.notFound().build();
         }
     }
+
+    /**
+     * Add and remove students by ID or NIM, and/or enroll a whole cohort, in one atomic update
+     * The batch enrollment endpoint; single students also have /{classId}/students/{studentId}
+     * Body: { "add": [...], "remove": [...], "cohort": { "major": "...", "batch": 2023 } }
+     */
+    @PostMapping("/{classId}/enrollments")
+    public ResponseEntity<EnrollmentResult> updateEnrollment(@PathVariable String classId, @RequestBody EnrollmentRequest request) {
+        try {
+            return classRoomService.updateEnrollment(classId, request)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package com.example.webapp.controller;
+
+import com.example.webapp.model.Versioned;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * ETag values for the REST controllers
+ * Spring MVC compares them with If-None-Match and answers 304 Not Modified.
+ * List ETags are weak: Tomcat does not compress responses that carry a strong
+ * ETag, and list bodies are the ones large enough to be compressed.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * 200 response with the ETag and Cache-Control: no-cache, so browsers keep
+     * the body and revalidate it with If-None-Match instead of refetching
+     */
+    static ResponseEntity.BodyBuilder ok(String etag) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag);
+    }
+
+    /**
+     * Strong ETag of one entity: its version
+     */
+    static String of(Versioned entity) {
+        return "\"" + entity.getVersion() + "\"";
+    }
+
+    /**
+     * Weak ETag of a list of entities, from their ids and versions (plus e.g. the next page cursor)
+     */
+    static String ofAll(Collection<? extends Versioned> entities, String extra) {
+        StringBuilder key = new StringBuilder();
+        for (Versioned entity : entities) {
+            key.append(entity.getId()).append(':').append(entity.getVersion()).append(';');
+        }
+        key.append(extra);
+        return weak(key.toString());
+    }
+
+    /**
+     * Weak ETag of a body without versions (projections, statistics), from its content
+     */
+    static String ofContent(Object body) {
+        return weak(String.valueOf(body));
+    }
+
+    /**
+     * Entity version required by an If-Match header, or null when any version is accepted.
+     * Weak or malformed values can never match a strong ETag, so they fail the precondition.
+     */
+    static Long versionOf(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.length() > 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            try {
+                return Long.parseLong(value.substring(1, value.length() - 1));
+            } catch (NumberFormatException e) {
+                // Falls through to the failed precondition
+            }
+        }
+        throw new OptimisticLockingFailureException("If-Match does not name an entity version: " + ifMatch);
+    }
+
+    private static String weak(String key) {
+        return "W/\"" + DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
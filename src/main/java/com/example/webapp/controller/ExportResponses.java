@@ -0,0 +1,55 @@
+package com.example.webapp.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Builds streaming export responses shared by the entity controllers
+ */
+final class ExportResponses {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private ExportResponses() {
+    }
+
+    /**
+     * Writes one export to the response
+     */
+    @FunctionalInterface
+    interface ExportWriter {
+        void write(OutputStream output) throws IOException;
+    }
+
+    /**
+     * Response that streams the export as a download, gzip-compressed when requested
+     */
+    static ResponseEntity<StreamingResponseBody> stream(String name, String format, boolean gzip, ExportWriter writer) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        String filename = name + (csv ? ".csv" : ".ndjson");
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(csv ? CSV : NDJSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return response.body(output -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(output, 8192);
+                writer.write(compressed);
+                compressed.finish();
+            } else {
+                writer.write(output);
+            }
+        });
+    }
+}
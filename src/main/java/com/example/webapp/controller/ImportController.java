@@ -0,0 +1,76 @@
+package com.example.webapp.controller;
+
+import com.example.webapp.model.ImportReport;
+import com.example.webapp.service.ImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * REST Controller for streaming imports
+ * The request body is the file itself (JSON array or CSV with header), read
+ * straight from the socket, e.g. with a session from the login form:
+ * curl -c cookies.txt -d username=admin -d password=admin /login
+ * curl -b cookies.txt -H "Content-Type: text/csv" --data-binary @students.csv /api/import/students
+ */
+@RestController
+@RequestMapping("/api/import")
+public class ImportController {
+
+    @Autowired
+    private ImportService importService;
+
+    /**
+     * Import students
+     */
+    @PostMapping("/students")
+    public ResponseEntity<ImportReport> importStudents(HttpServletRequest request,
+                                                       @RequestParam(required = false) String format) throws IOException {
+        try (InputStream input = request.getInputStream()) {
+            return ResponseEntity.ok(importService.importStudents(input, resolveFormat(request, format), "upload"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Import subjects
+     */
+    @PostMapping("/subjects")
+    public ResponseEntity<ImportReport> importSubjects(HttpServletRequest request,
+                                                       @RequestParam(required = false) String format) throws IOException {
+        try (InputStream input = request.getInputStream()) {
+            return ResponseEntity.ok(importService.importSubjects(input, resolveFormat(request, format), "upload"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Import classes
+     */
+    @PostMapping("/classes")
+    public ResponseEntity<ImportReport> importClasses(HttpServletRequest request,
+                                                      @RequestParam(required = false) String format) throws IOException {
+        try (InputStream input = request.getInputStream()) {
+            return ResponseEntity.ok(importService.importClasses(input, resolveFormat(request, format), "upload"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Explicit format parameter wins, otherwise CSV for text/csv and JSON for anything else
+     */
+    private String resolveFormat(HttpServletRequest request, String format) {
+        if (format != null && !format.isEmpty()) {
+            return format;
+        }
+        String contentType = request.getContentType();
+        return contentType != null && contentType.startsWith("text/csv") ? "csv" : "json";
+    }
+}
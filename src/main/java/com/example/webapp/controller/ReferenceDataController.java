@@ -0,0 +1,29 @@
+package com.example.webapp.controller;
+
+import com.example.webapp.model.ReferenceData;
+import com.example.webapp.service.ReferenceDataService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller for dropdown reference data
+ */
+@RestController
+@RequestMapping("/api/reference-data")
+public class ReferenceDataController {
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    /**
+     * Get majors, subject options and semesters in one response
+     * The ETag is the snapshot version; If-None-Match gets 304 Not Modified
+     * and the browser revalidates on every use (no-cache)
+     */
+    @GetMapping
+    public ResponseEntity<ReferenceData> getReferenceData() {
+        ReferenceData referenceData = referenceDataService.getReferenceData();
+        return ETags.ok("W/\"" + referenceData.getVersion() + "\"").body(referenceData);
+    }
+}
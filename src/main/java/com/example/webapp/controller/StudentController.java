@@ -1,14 +1,25 @@
 package com.example.webapp.controller;
 
+import com.example.webapp.model.BulkResult;
+import com.example.webapp.model.ClassSummary;
+import com.example.webapp.model.CursorPage;
+import com.example.webapp.model.SelectOption;
 import com.example.webapp.model.Student;
+import com.example.webapp.model.StudentFilter;
+import com.example.webapp.service.ExportService;
 import com.example.webapp.service.StudentService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.List;
@@ -26,13 +37,42 @@ public class StudentController {
     @Autowired
     private StudentService studentService;
 
+    @Autowired
+    private ExportService exportService;
+
     /**
      * Get all students
      */
     @GetMapping
     public ResponseEntity<List<Student>> getAllStudents() {
         List<Student> students = studentService.getAllStudents();
-        return ResponseEntity.ok(students);
+        return ETags.ok(ETags.ofAll(students, "")).body(students);
+    }
+
+    /**
+     * Get one page of students with optional filters and sorting
+     * e.g. /api/students/page?major=Sistem Informasi&status=ACTIVE&sort=name&size=20&cursor=...
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<Student>> getStudentPage(StudentFilter filter) {
+        try {
+            CursorPage<Student> page = studentService.getStudentPage(filter);
+            return ETags.ok(ETags.ofAll(page.getItems(), page.getNextCursor())).body(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Get id, NIM (as code) and name of students for selectors
+     * Accepts the same filters as /page, q for a NIM or name prefix and size for the limit
+     * e.g. /api/students/options?q=1020&size=20
+     */
+    @GetMapping("/options")
+    public ResponseEntity<List<SelectOption>> getStudentOptions(StudentFilter filter,
+                                                                @RequestParam(required = false) String q) {
+        List<SelectOption> options = studentService.getStudentOptions(filter, q);
+        return ETags.ok(ETags.ofContent(options)).body(options);
     }
 
     /**
@@ -52,7 +92,20 @@ public class StudentController {
     @GetMapping("/statistics")
     public ResponseEntity<Map<String, Object>> getStatistics() {
         Map<String, Object> stats = studentService.getStatistics();
-        return ResponseEntity.ok(stats);
+        return ETags.ok(ETags.ofContent(stats)).body(stats);
+    }
+
+    /**
+     * Export all students as NDJSON (default) or CSV, streamed from a database cursor
+     * e.g. /api/students/export?format=csv&gzip=true
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportStudents(@RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        if (!exportService.isSupportedFormat(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ExportResponses.stream("students", format, gzip, output -> exportService.exportStudents(output, format));
     }
 
     /**
@@ -61,10 +114,23 @@ public class StudentController {
     @GetMapping("/{id}")
     public ResponseEntity<Student> getStudentById(@PathVariable String id) {
         return studentService.getStudentById(id)
-                .map(ResponseEntity::ok)
+                .map(student -> ETags.ok(ETags.of(student)).body(student))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Get the classes a student is enrolled in, sorted by class code
+     */
+    @GetMapping("/{id}/classes")
+    public ResponseEntity<List<ClassSummary>> getStudentClasses(@PathVariable String id) {
+        try {
+            List<ClassSummary> classes = studentService.getStudentClasses(id);
+            return ETags.ok(ETags.ofContent(classes)).body(classes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     /**
      * Create new student
      */
@@ -78,19 +144,56 @@ public class StudentController {
         }
     }
 
+    /**
+     * Create many students in one request
+     * Returns a result for every row; invalid rows do not stop the others
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkResult> bulkCreateStudents(@RequestBody List<Student> students) {
+        return ResponseEntity.ok(studentService.bulkCreateStudents(students));
+    }
+
     /**
      * Update existing student
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Student> updateStudent(@PathVariable String id, @Valid @RequestBody Student student) {
+    public ResponseEntity<Student> updateStudent(@PathVariable String id, @Valid @RequestBody Student student,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
+            // If-Match takes precedence over the version in the body
+            Long expectedVersion = ETags.versionOf(ifMatch);
+            if (expectedVersion != null) {
+                student.setVersion(expectedVersion);
+            }
             Student updatedStudent = studentService.updateStudent(id, student);
-            return ResponseEntity.ok(updatedStudent);
+            return ResponseEntity.ok().eTag(ETags.of(updatedStudent)).body(updatedStudent);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        } catch (IllegalStateException e) {
+            // The body gives another NIM than the stored one
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    /**
+     * Update only the fields in a JSON Merge Patch body; a null member removes the field
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Student> patchStudent(@PathVariable String id, @RequestBody Map<String, Object> patch,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            return studentService.patchStudent(id, patch, ETags.versionOf(ifMatch))
+                .map(student -> ResponseEntity.ok().eTag(ETags.of(student)).body(student))
+                .orElse(ResponseEntity.notFound().build());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Handle validation errors
      */
@@ -111,6 +214,14 @@ public class StudentController {
         return ResponseEntity.badRequest().body(response);
     }
 
+    /**
+     * Handle a NIM that is already taken (unique index)
+     */
+    @ExceptionHandler(DuplicateKeyException.class)
+    public ResponseEntity<Map<String, Object>> handleDuplicateKey(DuplicateKeyException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "NIM already exists"));
+    }
+
     /**
      * Delete student by ID
      */
@@ -1,14 +1,24 @@
 package com.example.webapp.controller;
 
+import com.example.webapp.model.BulkResult;
+import com.example.webapp.model.CursorPage;
+import com.example.webapp.model.SelectOption;
 import com.example.webapp.model.Subject;
+import com.example.webapp.model.SubjectFilter;
+import com.example.webapp.service.ExportService;
 import com.example.webapp.service.SubjectService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.List;
@@ -26,13 +36,53 @@ public class SubjectController {
     @Autowired
     private SubjectService subjectService;
 
+    @Autowired
+    private ExportService exportService;
+
     /**
      * Get all subjects
      */
     @GetMapping
     public ResponseEntity<List<Subject>> getAllSubjects() {
         List<Subject> subjects = subjectService.getAllSubjects();
-        return ResponseEntity.ok(subjects);
+        return ETags.ok(ETags.ofAll(subjects, "")).body(subjects);
+    }
+
+    /**
+     * Get one page of subjects with optional filters, sorted by code
+     * e.g. /api/subjects/page?major=Sistem Informasi&sks=3&code=SI&size=20&cursor=...
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<Subject>> getSubjectPage(SubjectFilter filter) {
+        try {
+            CursorPage<Subject> page = subjectService.getSubjectPage(filter);
+            return ETags.ok(ETags.ofAll(page.getItems(), page.getNextCursor())).body(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Get id, code and name of subjects for selectors
+     * Accepts the same filters as /page
+     */
+    @GetMapping("/options")
+    public ResponseEntity<List<SelectOption>> getSubjectOptions(SubjectFilter filter) {
+        List<SelectOption> options = subjectService.getSubjectOptions(filter);
+        return ETags.ok(ETags.ofContent(options)).body(options);
+    }
+
+    /**
+     * Export all subjects as NDJSON (default) or CSV, streamed from a database cursor
+     * e.g. /api/subjects/export?format=csv&gzip=true
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportSubjects(@RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        if (!exportService.isSupportedFormat(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ExportResponses.stream("subjects", format, gzip, output -> exportService.exportSubjects(output, format));
     }
 
     /**
@@ -41,7 +91,7 @@ public class SubjectController {
     @GetMapping("/{id}")
     public ResponseEntity<Subject> getSubjectById(@PathVariable String id) {
         return subjectService.getSubjectById(id)
-                .map(ResponseEntity::ok)
+                .map(subject -> ETags.ok(ETags.of(subject)).body(subject))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -58,19 +108,53 @@ public class SubjectController {
         }
     }
 
+    /**
+     * Create many subjects in one request
+     * Returns a result for every row; invalid rows do not stop the others
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkResult> bulkCreateSubjects(@RequestBody List<Subject> subjects) {
+        return ResponseEntity.ok(subjectService.bulkCreateSubjects(subjects));
+    }
+
     /**
      * Update existing subject
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Subject> updateSubject(@PathVariable String id, @Valid @RequestBody Subject subject) {
+    public ResponseEntity<Subject> updateSubject(@PathVariable String id, @Valid @RequestBody Subject subject,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
+            // If-Match takes precedence over the version in the body
+            Long expectedVersion = ETags.versionOf(ifMatch);
+            if (expectedVersion != null) {
+                subject.setVersion(expectedVersion);
+            }
             Subject updatedSubject = subjectService.updateSubject(id, subject);
-            return ResponseEntity.ok(updatedSubject);
+            return ResponseEntity.ok().eTag(ETags.of(updatedSubject)).body(updatedSubject);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    /**
+     * Update only the fields in a JSON Merge Patch body; a null member removes the field
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Subject> patchSubject(@PathVariable String id, @RequestBody Map<String, Object> patch,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            return subjectService.patchSubject(id, patch, ETags.versionOf(ifMatch))
+                .map(subject -> ResponseEntity.ok().eTag(ETags.of(subject)).body(subject))
+                .orElse(ResponseEntity.notFound().build());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Handle validation errors
      */
@@ -91,6 +175,14 @@ public class SubjectController {
         return ResponseEntity.badRequest().body(response);
     }
 
+    /**
+     * Handle a code that is already taken (unique index)
+     */
+    @ExceptionHandler(DuplicateKeyException.class)
+    public ResponseEntity<Map<String, Object>> handleDuplicateKey(DuplicateKeyException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "Code already exists"));
+    }
+
     /**
      * Delete subject by ID
      */
@@ -0,0 +1,25 @@
+package com.example.webapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk create request, with one result per submitted row
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkResult {
+    private int total;
+    private int created;
+    private int failed;
+    private List<BulkRowResult> rows;
+
+    public static BulkResult of(List<BulkRowResult> rows) {
+        int created = (int) rows.stream().filter(BulkRowResult::isSuccess).count();
+        return new BulkResult(rows.size(), created, rows.size() - created, rows);
+    }
+}
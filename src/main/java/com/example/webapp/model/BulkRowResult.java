@@ -0,0 +1,27 @@
+package com.example.webapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one row in a bulk create request
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRowResult {
+    private int index;        // Position in the request body
+    private boolean success;
+    private String id;        // Id of the created document
+    private String code;      // Generated or supplied business key (NIM or code)
+    private String error;     // Reason the row was rejected
+
+    public static BulkRowResult created(int index, String id, String code) {
+        return new BulkRowResult(index, true, id, code, null);
+    }
+
+    public static BulkRowResult failed(int index, String error) {
+        return new BulkRowResult(index, false, null, null, error);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.webapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Hit, miss and eviction counters of one entity cache
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheMetrics {
+    private String name;
+    private long size;        // Approximate number of cached entries
+    private long hits;
+    private long misses;
+    private double hitRate;   // hits / (hits + misses), 1.0 when there were no requests
+    private long evictions;   // Entries removed by the size or TTL policy (not by invalidation)
+}
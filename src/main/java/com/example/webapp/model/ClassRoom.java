@@ -5,10 +5,15 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * ClassRoom entity
@@ -19,7 +24,15 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "classes")
-public class ClassRoom {
+@CompoundIndexes({
+    // Keyset pagination by code
+    @CompoundIndex(name = "code_id", def = "{'code': 1, '_id': 1}"),
+    @CompoundIndex(name = "semester_year_code", def = "{'semester': 1, 'year': 1, 'code': 1}"),
+    @CompoundIndex(name = "subjectId_code", def = "{'subjectId': 1, 'code': 1}"),
+    // Multikey: classes of one student, in code order
+    @CompoundIndex(name = "studentIds_code", def = "{'studentIds': 1, 'code': 1}")
+})
+public class ClassRoom implements Versioned {
     @Id
     private String id;
     private String code;          // Class code (e.g., "KLS001")
@@ -30,7 +43,18 @@ public class ClassRoom {
     private Integer year;         // Academic year
     private List<String> studentIds = new ArrayList<>();  // List of enrolled student IDs
 
+    @Version
+    private Long version;         // Incremented on every update, used for ETags
+
     // Transient field used only during JSON deserialization for initialization
     @Transient
     private List<String> studentNims;  // Temporary list of student NIMs (not stored in DB)
+
+    /**
+     * Enrolled student IDs as an insertion-ordered set, for O(1) membership checks
+     * (a copy; changes are not written back to studentIds)
+     */
+    public Set<String> enrolledStudentIds() {
+        return studentIds == null ? new LinkedHashSet<>() : new LinkedHashSet<>(studentIds);
+    }
 }
@@ -0,0 +1,18 @@
+package com.example.webapp.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Query parameters for the paginated class listing
+ * All filters are optional and combined with AND, results are sorted by code
+ */
+@Data
+@NoArgsConstructor
+public class ClassRoomFilter {
+    private String semester;   // Ganjil or Genap
+    private Integer year;
+    private String subjectId;
+    private String cursor;     // nextCursor from the previous page
+    private Integer size;      // Page size, capped by pagination.max-size
+}
@@ -0,0 +1,22 @@
+package com.example.webapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Projection of a class without its enrolled student list
+ * (used for the classes of one student)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClassSummary {
+    private String id;
+    private String code;
+    private String name;
+    private String subjectId;
+    private String subjectName;
+    private String semester;
+    private Integer year;
+}
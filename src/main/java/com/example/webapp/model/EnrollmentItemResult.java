@@ -0,0 +1,30 @@
+package com.example.webapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one student in a batch enrollment request
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrollmentItemResult {
+    public static final String ADD = "ADD";
+    public static final String REMOVE = "REMOVE";
+
+    private String value;      // ID or NIM as submitted (NIM for cohort members)
+    private String action;     // ADD or REMOVE
+    private boolean success;
+    private String studentId;  // Resolved student ID
+    private String message;    // added, already enrolled, removed, not enrolled, or the error
+
+    public static EnrollmentItemResult resolved(String value, String action, String studentId) {
+        return new EnrollmentItemResult(value, action, true, studentId, null);
+    }
+
+    public static EnrollmentItemResult failed(String value, String action, String error) {
+        return new EnrollmentItemResult(value, action, false, null, error);
+    }
+}
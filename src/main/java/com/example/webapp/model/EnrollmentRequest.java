@@ -0,0 +1,19 @@
+package com.example.webapp.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch enrollment change for one class
+ * Students are given by ID or NIM; a cohort enrolls every student matching its filters
+ */
+@Data
+@NoArgsConstructor
+public class EnrollmentRequest {
+    private List<String> add = new ArrayList<>();     // Student IDs or NIMs to enroll
+    private List<String> remove = new ArrayList<>();  // Student IDs or NIMs to unenroll
+    private StudentFilter cohort;                     // major, batch and/or status to enroll as a group
+}
@@ -0,0 +1,23 @@
+package com.example.webapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch enrollment request, with one result per student
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrollmentResult {
+    private String classId;
+    private int added;
+    private int removed;
+    private int failed;
+    private int enrolled;  // Class size after the update
+    private Long version;  // Class version after the update, for the next If-Match
+    private List<EnrollmentItemResult> items;
+}
@@ -0,0 +1,24 @@
+package com.example.webapp.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary of a streaming import
+ * Only counters and the first few errors are kept, so it stays small for any file size
+ */
+@Data
+@NoArgsConstructor
+public class ImportReport {
+    private String source;          // File name or "upload"
+    private long read;              // Records parsed from the input
+    private long created;
+    private long failed;
+    private int chunks;             // Bulk writes issued
+    private long elapsedMillis;
+    private double recordsPerSecond;
+    private List<String> errors = new ArrayList<>();  // First errors, capped by import.max-errors
+}
@@ -0,0 +1,27 @@
+package com.example.webapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One declared or existing index of a collection, compared by key pattern and uniqueness
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexStatus {
+
+    public static final String PRESENT = "PRESENT";        // Declared and exists as declared
+    public static final String MISSING = "MISSING";        // Declared, not (yet) built
+    public static final String MISMATCH = "MISMATCH";      // Same keys exist with other options (e.g. not unique)
+    public static final String FAILED = "FAILED";          // Build failed, e.g. duplicate keys for a unique index
+    public static final String UNDECLARED = "UNDECLARED";  // Exists but no entity declares it
+
+    private String collection;
+    private String name;
+    private String keys;      // Key pattern, e.g. {"major": 1, "status": 1, "nim": 1}
+    private boolean unique;
+    private String status;
+    private String error;     // Reason of the last failed build
+}
@@ -0,0 +1,18 @@
+package com.example.webapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Aggregation result row
+ * Number of documents for one major (and optionally one student status)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MajorCount {
+    private String major;
+    private StudentStatus status;  // Null for subject counts
+    private long count;
+}
@@ -0,0 +1,17 @@
+package com.example.webapp.model;
+
+import lombok.Value;
+
+/**
+ * Dashboard statistics for one major
+ * Not stored, built from aggregation counts; immutable because snapshots are shared by readers
+ */
+@Value
+public class MajorStatistics {
+    String major;
+    long totalStudents;
+    long activeStudents;
+    long notActiveStudents;
+    long dropoutStudents;
+    long subjects;
+}
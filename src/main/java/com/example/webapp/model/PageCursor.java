@@ -0,0 +1,38 @@
+package com.example.webapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated listing
+ * Holds the sort field, its value and the id of the last item returned,
+ * sent to clients as an opaque URL-safe string
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageCursor {
+    private String sortField;  // Field the listing is sorted by
+    private String id;         // Id of the last item (tie-breaker)
+    private String value;      // Sort field value of the last item, null when the item has none
+
+    public String encode() {
+        // A null value leaves out the third part, so it stays distinct from an empty string
+        String raw = sortField + "|" + id + (value == null ? "" : "|" + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            return new PageCursor(parts[0], parts[1], parts.length > 2 ? parts[2] : null);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
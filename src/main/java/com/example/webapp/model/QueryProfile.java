@@ -0,0 +1,29 @@
+package com.example.webapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Timings and query plan of one MongoDB query shape
+ * A shape is the command and collection with the filter's literal values replaced by "?"
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueryProfile {
+    private String command;                // find, aggregate, update, ...
+    private String collection;
+    private String shape;                  // Normalized filter/pipeline and sort
+    private long count;
+    private long failures;
+    private long slowCount;                // Executions above mongo.profiler.slow-ms
+    private double totalMillis;
+    private double meanMillis;
+    private double maxMillis;
+    private String plan;                   // Winning plan stages, e.g. "FETCH > IXSCAN"; null until explained
+    private boolean collectionScan;        // Winning plan contains COLLSCAN
+    private Map<String, Object> explain;   // Full explain output, kept only for collection scans
+}
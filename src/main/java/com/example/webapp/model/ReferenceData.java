@@ -0,0 +1,17 @@
+package com.example.webapp.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Immutable snapshot of the data behind dropdowns
+ * The version changes whenever the snapshot is rebuilt and is used as the ETag
+ */
+@Value
+public class ReferenceData {
+    String version;
+    List<String> majors;
+    List<SelectOption> subjects;   // id, code and name of every subject, sorted by code
+    List<String> semesters;
+}
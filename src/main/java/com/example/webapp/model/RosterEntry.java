@@ -0,0 +1,20 @@
+package com.example.webapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Projection of a student enrolled in a class (class roster row)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RosterEntry {
+    private String id;
+    private String nim;
+    private String name;
+    private String major;
+    private Integer batch;
+    private StudentStatus status;
+}
@@ -0,0 +1,18 @@
+package com.example.webapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Lightweight projection for dropdowns and selectors
+ * Code is the business key (subject code, student NIM)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SelectOption {
+    private String id;
+    private String code;
+    private String name;
+}
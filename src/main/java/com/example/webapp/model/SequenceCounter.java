@@ -0,0 +1,22 @@
+package com.example.webapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * SequenceCounter entity
+ * Holds the highest sequence number handed out for one key (e.g. "nim:102020")
+ * Incremented atomically with findAndModify, never read-modify-written
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "sequences")
+public class SequenceCounter {
+    @Id
+    private String id;     // Sequence key (e.g., "nim:102020")
+    private long value;    // Highest value reserved so far
+}
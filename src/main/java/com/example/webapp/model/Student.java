@@ -5,17 +5,32 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "students")
-public class Student {
+@CompoundIndexes({
+    // Keyset pagination: each sort field paired with _id as tie-breaker
+    @CompoundIndex(name = "nim_id", def = "{'nim': 1, '_id': 1}"),
+    @CompoundIndex(name = "name_id", def = "{'name': 1, '_id': 1}"),
+    @CompoundIndex(name = "batch_id", def = "{'batch': 1, '_id': 1}"),
+    // Common filters followed by the default sort
+    @CompoundIndex(name = "major_batch_nim", def = "{'major': 1, 'batch': 1, 'nim': 1}"),
+    @CompoundIndex(name = "major_status_nim", def = "{'major': 1, 'status': 1, 'nim': 1}"),
+    @CompoundIndex(name = "status_nim", def = "{'status': 1, 'nim': 1}")
+})
+public class Student implements Versioned {
 
     @Id
     private String id;
 
+    @Indexed(name = "nim_unique", unique = true)
     private String nim;
 
     @NotBlank(message = "Name is required")
@@ -34,4 +49,7 @@ public class Student {
     private Integer batch;  // Year entered university
 
     private StudentStatus status;  // ACTIVE, NOT_ACTIVE, DROPOUT
+
+    @Version
+    private Long version;  // Incremented on every update, used for ETags
 }
@@ -0,0 +1,21 @@
+package com.example.webapp.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Query parameters for the paginated student listing
+ * All filters are optional and combined with AND
+ */
+@Data
+@NoArgsConstructor
+public class StudentFilter {
+    private String major;
+    private Integer batch;
+    private StudentStatus status;
+    private String name;              // Name prefix (case-sensitive, index-backed)
+    private String sort = "nim";      // nim, name or batch
+    private String direction = "asc"; // asc or desc
+    private String cursor;            // nextCursor from the previous page
+    private Integer size;             // Page size, capped by pagination.max-size
+}
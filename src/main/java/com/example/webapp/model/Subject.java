@@ -5,17 +5,28 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "subjects")
-public class Subject {
+@CompoundIndexes({
+    // Keyset pagination by code, also serves code prefix filters
+    @CompoundIndex(name = "code_id", def = "{'code': 1, '_id': 1}"),
+    @CompoundIndex(name = "major_code", def = "{'major': 1, 'code': 1}"),
+    @CompoundIndex(name = "sks_code", def = "{'sks': 1, 'code': 1}")
+})
+public class Subject implements Versioned {
 
     @Id
     private String id;
 
+    @Indexed(name = "code_unique", unique = true)
     private String code;  // Auto-generated based on major (XXYYY format)
 
     @NotBlank(message = "Name is required")
@@ -29,4 +40,7 @@ public class Subject {
     @Min(value = 1, message = "SKS must be at least 1")
     @Max(value = 6, message = "SKS must not exceed 6")
     private Integer sks;
+
+    @Version
+    private Long version;  // Incremented on every update, used for ETags
 }
@@ -0,0 +1,18 @@
+package com.example.webapp.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Query parameters for the paginated subject listing
+ * All filters are optional and combined with AND, results are sorted by code
+ */
+@Data
+@NoArgsConstructor
+public class SubjectFilter {
+    private String major;
+    private Integer sks;
+    private String code;     // Code prefix (e.g., "SI")
+    private String cursor;   // nextCursor from the previous page
+    private Integer size;    // Page size, capped by pagination.max-size
+}
@@ -0,0 +1,11 @@
+package com.example.webapp.model;
+
+/**
+ * Entity carrying an optimistic-locking version
+ * The version is bumped by every write and is used to build ETags
+ */
+public interface Versioned {
+    String getId();
+    Long getVersion();
+    void setVersion(Long version);
+}
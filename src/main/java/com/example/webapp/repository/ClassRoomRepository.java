@@ -1,14 +1,50 @@
 package com.example.webapp.repository;
 
 import com.example.webapp.model.ClassRoom;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+import java.util.stream.Stream;
+
 /**
  * Repository interface for ClassRoom entity
  * Provides CRUD operations for ClassRoom collection
  */
 @Repository
-public interface ClassRoomRepository extends MongoRepository<ClassRoom, String> {
-    // Custom query methods can be added here if needed
+public interface ClassRoomRepository extends MongoRepository<ClassRoom, String>, ClassRoomRepositoryCustom {
+    // Single-entity reads go through the "classes" cache; writes evict the entry
+    // (sync, so a load overlapped by an eviction is not cached, see CacheConfig)
+    @Override
+    @Cacheable(cacheNames = "classes", sync = true)
+    Optional<ClassRoom> findById(String id);
+
+    @Override
+    @CacheEvict(cacheNames = "classes", key = "#p0.id", condition = "#p0.id != null")
+    <S extends ClassRoom> S save(S classRoom);
+
+    @Override
+    @CacheEvict("classes")
+    void deleteById(String id);
+
+    // Highest sequence number of the KLS codes, compared as a number ("KLS1000" > "KLS999")
+    @Aggregation(pipeline = {
+        "{ $match: { code: { $regex: '^KLS[0-9]{3,}$' } } }",
+        "{ $group: { _id: null, sequence: { $max: { $toLong: { $substrCP: ['$code', 3, { $subtract: [{ $strLenCP: '$code' }, 3] }] } } } } }",
+        "{ $project: { _id: 0, sequence: 1 } }"
+    })
+    Optional<Long> findMaxCodeSequence();
+
+    // Only the enrolled student IDs and the version of a class
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'studentIds': 1, 'version': 1 }")
+    Optional<ClassRoom> findStudentIdsById(String id);
+
+    // All classes in code order, read lazily from a server-side cursor (close the stream)
+    @Meta(cursorBatchSize = 500)
+    Stream<ClassRoom> streamAllByOrderByCodeAsc();
 }
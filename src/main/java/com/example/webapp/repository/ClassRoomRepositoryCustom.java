@@ -0,0 +1,52 @@
+package com.example.webapp.repository;
+
+import com.example.webapp.model.ClassRoom;
+import com.example.webapp.model.ClassRoomFilter;
+import com.example.webapp.model.ClassSummary;
+import com.example.webapp.model.PageCursor;
+import org.springframework.cache.annotation.CacheEvict;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Custom query methods for ClassRoom that need MongoTemplate
+ */
+public interface ClassRoomRepositoryCustom {
+
+    // Keyset page: classes matching the filter, sorted by code then id, after the cursor
+    List<ClassRoom> findPage(ClassRoomFilter filter, PageCursor after, int limit);
+
+    // Unordered bulk insert; returns error messages by list index for the rows that failed
+    Map<Integer, String> bulkInsert(List<ClassRoom> classes);
+
+    // Atomic $addToSet of the students; returns the class as it was before the update (null if missing)
+    @CacheEvict(cacheNames = "classes", key = "#p0")
+    ClassRoom addStudents(String classId, Collection<String> studentIds);
+
+    // Atomic $pull of the students; returns the class as it was before the update (null if missing)
+    @CacheEvict(cacheNames = "classes", key = "#p0")
+    ClassRoom removeStudents(String classId, Collection<String> studentIds);
+
+    // Atomic add and remove in one update (a pipeline when both are given); returns the class as it was before the update (null if missing)
+    @CacheEvict(cacheNames = "classes", key = "#p0")
+    ClassRoom updateEnrollment(String classId, Collection<String> addIds, Collection<String> removeIds);
+
+    // Classes the student is enrolled in (multikey index on studentIds), sorted by code
+    List<ClassSummary> findByStudentId(String studentId);
+
+    // One multi-document $pull of the student from every class; returns the number of classes changed
+    @CacheEvict(cacheNames = "classes", allEntries = true)
+    long removeStudentFromAll(String studentId);
+
+    // Replace every field but studentIds (changed only by the enrollment updates) and bump the version
+    // in one update, optionally only if the stored version matches; returns the previous document, or null when nothing matched
+    @CacheEvict(cacheNames = "classes", key = "#p0.id")
+    ClassRoom replaceIfVersion(ClassRoom classRoom, Long expectedVersion);
+
+    // Set (or unset, for null values) only the given fields and bump the version, optionally only
+    // if the stored version matches; returns the previous document, or null when nothing matched
+    @CacheEvict(cacheNames = "classes", key = "#p0")
+    ClassRoom patchIfVersion(String id, Map<String, Object> fields, Long expectedVersion);
+}
@@ -0,0 +1,130 @@
+package com.example.webapp.repository;
+
+import com.example.webapp.model.ClassRoom;
+import com.example.webapp.model.ClassRoomFilter;
+import com.example.webapp.model.ClassSummary;
+import com.example.webapp.model.PageCursor;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * MongoTemplate-based implementation of ClassRoomRepositoryCustom
+ * Picked up by Spring Data as the fragment implementation ("Impl" suffix)
+ */
+public class ClassRoomRepositoryCustomImpl implements ClassRoomRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${bulk.batch-size:1000}")
+    private int bulkBatchSize;
+
+    @Override
+    public List<ClassRoom> findPage(ClassRoomFilter filter, PageCursor after, int limit) {
+        List<Criteria> criteria = new ArrayList<>();
+
+        if (filter.getSemester() != null && !filter.getSemester().isEmpty()) {
+            criteria.add(Criteria.where("semester").is(filter.getSemester()));
+        }
+        if (filter.getYear() != null) {
+            criteria.add(Criteria.where("year").is(filter.getYear()));
+        }
+        if (filter.getSubjectId() != null && !filter.getSubjectId().isEmpty()) {
+            criteria.add(Criteria.where("subjectId").is(filter.getSubjectId()));
+        }
+        if (after != null) {
+            criteria.add(QueryUtils.keysetAfter("code", after.getValue(), after.getId(), true));
+        }
+
+        Query query = QueryUtils.allOf(criteria);
+        query.with(Sort.by("code", "id")).limit(limit);
+
+        return mongoTemplate.find(query, ClassRoom.class);
+    }
+
+    @Override
+    public Map<Integer, String> bulkInsert(List<ClassRoom> classes) {
+        return QueryUtils.insertUnordered(mongoTemplate, ClassRoom.class, classes, bulkBatchSize);
+    }
+
+    @Override
+    public ClassRoom addStudents(String classId, Collection<String> studentIds) {
+        Update update = new Update().addToSet("studentIds").each(studentIds.toArray()).inc("version", 1);
+        return mongoTemplate.findAndModify(byId(classId), update, FindAndModifyOptions.options().returnNew(false), ClassRoom.class);
+    }
+
+    @Override
+    public ClassRoom removeStudents(String classId, Collection<String> studentIds) {
+        Update update = new Update().pullAll("studentIds", studentIds.toArray()).inc("version", 1);
+        return mongoTemplate.findAndModify(byId(classId), update, FindAndModifyOptions.options().returnNew(false), ClassRoom.class);
+    }
+
+    @Override
+    public ClassRoom updateEnrollment(String classId, Collection<String> addIds, Collection<String> removeIds) {
+        // One-sided changes need no pipeline
+        if (removeIds.isEmpty()) {
+            return addStudents(classId, addIds);
+        }
+        if (addIds.isEmpty()) {
+            return removeStudents(classId, removeIds);
+        }
+        // $addToSet and $pull cannot touch the same field in one update, so a pipeline
+        // recomputes studentIds: keep the IDs not removed, then append the new ones
+        Document kept = new Document("$filter", new Document("input", new Document("$ifNull", List.of("$studentIds", List.of())))
+            .append("cond", new Document("$not", List.of(new Document("$in", List.of("$$this", new ArrayList<>(removeIds)))))));
+        Document appended = new Document("$filter", new Document("input", new ArrayList<>(addIds))
+            .append("cond", new Document("$not", List.of(new Document("$in", List.of("$$this", "$$kept"))))));
+        Document studentIds = new Document("$let", new Document("vars", new Document("kept", kept))
+            .append("in", new Document("$concatArrays", List.of("$$kept", appended))));
+
+        Document version = new Document("$add", List.of(new Document("$ifNull", List.of("$version", 0L)), 1L));
+
+        AggregationUpdate update = AggregationUpdate.from(List.of(
+            context -> new Document("$set", new Document("studentIds", studentIds).append("version", version))));
+        return mongoTemplate.findAndModify(byId(classId), update, FindAndModifyOptions.options().returnNew(false), ClassRoom.class);
+    }
+
+    @Override
+    public List<ClassSummary> findByStudentId(String studentId) {
+        Query query = new Query(Criteria.where("studentIds").is(studentId));
+        query.fields().exclude("studentIds");
+        query.with(Sort.by("code"));
+
+        return mongoTemplate.find(query, ClassSummary.class, mongoTemplate.getCollectionName(ClassRoom.class));
+    }
+
+    @Override
+    public long removeStudentFromAll(String studentId) {
+        Query query = new Query(Criteria.where("studentIds").is(studentId));
+        return mongoTemplate.updateMulti(query, new Update().pull("studentIds", studentId).inc("version", 1), ClassRoom.class)
+            .getModifiedCount();
+    }
+
+    @Override
+    public ClassRoom replaceIfVersion(ClassRoom classRoom, Long expectedVersion) {
+        return QueryUtils.replaceFields(mongoTemplate, classRoom, Set.of("studentIds"), expectedVersion);
+    }
+
+    @Override
+    public ClassRoom patchIfVersion(String id, Map<String, Object> fields, Long expectedVersion) {
+        return QueryUtils.patchIfVersion(mongoTemplate, ClassRoom.class, id, fields, expectedVersion);
+    }
+
+    private Query byId(String classId) {
+        return new Query(Criteria.where("id").is(classId));
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.webapp.repository;
+
+import com.example.webapp.model.Versioned;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Helpers shared by the MongoTemplate-based repository implementations
+ */
+final class QueryUtils {
+
+    private QueryUtils() {
+    }
+
+    /**
+     * Query matching all of the given criteria (or everything when empty)
+     */
+    static Query allOf(List<Criteria> criteria) {
+        Query query = new Query();
+        if (!criteria.isEmpty()) {
+            query.addCriteria(new Criteria().andOperator(criteria));
+        }
+        return query;
+    }
+
+    /**
+     * Escape regex metacharacters so user input is matched literally
+     * (a plain "^literal" prefix regex can use an index)
+     */
+    static String escapeRegex(String input) {
+        return input.replaceAll("([\\\\.*+?^$|()\\[\\]{}])", "\\\\$1");
+    }
+
+    /**
+     * Keyset condition: documents that sort after (value, id) on sortField, id
+     * Follows MongoDB's order for missing and null values: first when ascending, last when descending
+     */
+    static Criteria keysetAfter(String sortField, Object value, String id, boolean ascending) {
+        // The mapper does not convert ids inside $gt/$lt, and a string never compares to an ObjectId
+        Object lastId = ObjectId.isValid(id) ? new ObjectId(id) : id;
+        if (value == null) {
+            Criteria sameValue = Criteria.where(sortField).is(null).and("id");
+            if (ascending) {
+                return new Criteria().orOperator(
+                    sameValue.gt(lastId),
+                    Criteria.where(sortField).ne(null));
+            }
+            return sameValue.lt(lastId);
+        }
+        if (ascending) {
+            return new Criteria().orOperator(
+                Criteria.where(sortField).gt(value),
+                Criteria.where(sortField).is(value).and("id").gt(lastId));
+        }
+        return new Criteria().orOperator(
+            Criteria.where(sortField).lt(value),
+            Criteria.where(sortField).is(value).and("id").lt(lastId),
+            Criteria.where(sortField).is(null));
+    }
+
+    /**
+     * Insert with unordered bulk writes, batchSize documents per command
+     * A failing document does not stop the others; returns error messages by list index
+     */
+    static <T> Map<Integer, String> insertUnordered(MongoTemplate mongoTemplate, Class<T> type,
+                                                    List<T> entities, int batchSize) {
+        Map<Integer, String> errors = new HashMap<>();
+        for (int from = 0; from < entities.size(); from += batchSize) {
+            List<T> batch = entities.subList(from, Math.min(from + batchSize, entities.size()));
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type).insert(batch).execute();
+            } catch (BulkOperationException e) {
+                for (BulkWriteError error : e.getErrors()) {
+                    errors.put(from + error.getIndex(), error.getMessage());
+                }
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Replace every mapped field except id, version and the kept fields ($unset for null values)
+     * and bump the version, in one round trip. The kept fields stay as stored. With an expected
+     * version only that version is replaced; returns the document as it was before, or null when
+     * nothing matched.
+     */
+    static <T extends Versioned> T replaceFields(MongoTemplate mongoTemplate, T replacement,
+                                                 Set<String> keptFields, Long expectedVersion) {
+        return replaceFields(mongoTemplate, replacement, keptFields, Criteria.where("id").is(replacement.getId()),
+            expectedVersion);
+    }
+
+    /**
+     * replaceFields for the document matching the given criteria (which must select it by id)
+     */
+    static <T extends Versioned> T replaceFields(MongoTemplate mongoTemplate, T replacement,
+                                                 Set<String> keptFields, Criteria match, Long expectedVersion) {
+        Document converted = new Document();
+        mongoTemplate.getConverter().write(replacement, converted);
+
+        Map<String, Object> fields = new HashMap<>();
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+            .getRequiredPersistentEntity(replacement.getClass());
+        for (MongoPersistentProperty property : entity) {
+            if (!property.isIdProperty() && !property.isVersionProperty() && !keptFields.contains(property.getName())) {
+                fields.put(property.getFieldName(), converted.get(property.getFieldName()));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        Class<T> type = (Class<T>) replacement.getClass();
+        return updateIfVersion(mongoTemplate, type, match, fields, expectedVersion);
+    }
+
+    /**
+     * Set only the given fields ($unset for null values) and bump the version, in one round trip
+     * With an expected version only that version is updated; returns the document as it was
+     * before, or null when nothing matched
+     */
+    static <T> T patchIfVersion(MongoTemplate mongoTemplate, Class<T> type, String id,
+                                Map<String, Object> fields, Long expectedVersion) {
+        return updateIfVersion(mongoTemplate, type, Criteria.where("id").is(id), fields, expectedVersion);
+    }
+
+    private static <T> T updateIfVersion(MongoTemplate mongoTemplate, Class<T> type, Criteria criteria,
+                                         Map<String, Object> fields, Long expectedVersion) {
+        if (expectedVersion != null) {
+            criteria.and("version").is(expectedVersion);
+        }
+        Update update = new Update().inc("version", 1);
+        fields.forEach((field, value) -> {
+            if (value == null) {
+                update.unset(field);
+            } else {
+                update.set(field, value);
+            }
+        });
+        return mongoTemplate.findAndModify(new Query(criteria), update, type);
+    }
+}
@@ -1,12 +1,71 @@
 package com.example.webapp.repository;
 
+import com.example.webapp.model.MajorCount;
 import com.example.webapp.model.Student;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface StudentRepository extends MongoRepository<Student, String> {
+public interface StudentRepository extends MongoRepository<Student, String>, StudentRepositoryCustom {
+    // Single-entity reads go through the "students" cache; writes evict the entry
+    // (sync, so a load overlapped by an eviction is not cached, see CacheConfig)
+    @Override
+    @Cacheable(cacheNames = "students", sync = true)
+    Optional<Student> findById(String id);
+
+    @Override
+    @CacheEvict(cacheNames = "students", key = "#p0.id", condition = "#p0.id != null")
+    <S extends Student> S save(S student);
+
+    @Override
+    @CacheEvict("students")
+    void deleteById(String id);
+
     Optional<Student> findByNim(String nim);
+
+    // Highest sequence number under one NIM prefix, compared as a number ("…10000" > "…9999")
+    @Aggregation(pipeline = {
+        "{ $match: { nim: { $regex: ?0 } } }",
+        "{ $group: { _id: null, sequence: { $max: { $toLong: { $substrCP: ['$nim', 6, { $subtract: [{ $strLenCP: '$nim' }, 6] }] } } } } }",
+        "{ $project: { _id: 0, sequence: 1 } }"
+    })
+    Optional<Long> findMaxNimSequence(String nimPattern);
+
+    // Only id and NIM, for resolving NIM references in bulk
+    @Query(value = "{ 'nim': { $in: ?0 } }", fields = "{ 'nim': 1 }")
+    List<Student> findByNimIn(Collection<String> nims);
+
+    // Only id and NIM, for checking that student IDs exist
+    @Query(fields = "{ 'nim': 1 }")
+    List<Student> findByIdIn(Collection<String> ids);
+
+    // All students in NIM order, read lazily from a server-side cursor (close the stream)
+    @Meta(cursorBatchSize = 500)
+    Stream<Student> streamAllByOrderByNimAsc();
+
+    // Highest NIM for every major/batch prefix (first 6 characters), by numeric sequence;
+    // returned as prefix + unpadded sequence, which is all reserving a NIM reads
+    @Aggregation(pipeline = {
+        "{ $match: { nim: { $regex: '^[0-9]{10,}$' } } }",
+        "{ $group: { _id: { $substrCP: ['$nim', 0, 6] }, sequence: { $max: { $toLong: { $substrCP: ['$nim', 6, { $subtract: [{ $strLenCP: '$nim' }, 6] }] } } } } }",
+        "{ $project: { _id: 0, nim: { $concat: ['$_id', { $toString: '$sequence' }] } } }"
+    })
+    List<String> findHighestNimPerPrefix();
+
+    // Number of students per major and status, counted by the database
+    @Aggregation(pipeline = {
+        "{ $group: { _id: { major: '$major', status: '$status' }, count: { $sum: 1 } } }",
+        "{ $project: { _id: 0, major: '$_id.major', status: '$_id.status', count: 1 } }"
+    })
+    List<MajorCount> countByMajorAndStatus();
 }
@@ -0,0 +1,42 @@
+package com.example.webapp.repository;
+
+import com.example.webapp.model.PageCursor;
+import com.example.webapp.model.RosterEntry;
+import com.example.webapp.model.SelectOption;
+import com.example.webapp.model.Student;
+import com.example.webapp.model.StudentFilter;
+import org.springframework.cache.annotation.CacheEvict;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Custom query methods for Student that need MongoTemplate
+ */
+public interface StudentRepositoryCustom {
+
+    // Keyset page: students matching the filter, sorted by filter.sort then id, after the cursor
+    List<Student> findPage(StudentFilter filter, PageCursor after, int limit);
+
+    // Only id, NIM and name of the students matching the filter and the NIM or name prefix
+    // in search (null for any), sorted by NIM; limit 0 returns all of them
+    List<SelectOption> findOptions(StudentFilter filter, String search, int limit);
+
+    // Keyset page of roster rows for the given student ids ($in on _id), sorted by NIM then id
+    List<RosterEntry> findRoster(Collection<String> studentIds, PageCursor after, int limit);
+
+    // Unordered bulk insert; returns error messages by list index for the rows that failed
+    Map<Integer, String> bulkInsert(List<Student> students);
+
+    // Replace every field but the NIM (which stays as stored) and bump the version in one update,
+    // optionally only if the stored version matches, and only if the NIM, when given, is the stored one;
+    // returns the previous document, or null when nothing matched
+    @CacheEvict(cacheNames = "students", key = "#p0.id")
+    Student replaceIfVersion(Student student, Long expectedVersion);
+
+    // Set (or unset, for null values) only the given fields and bump the version, optionally only
+    // if the stored version matches; returns the previous document, or null when nothing matched
+    @CacheEvict(cacheNames = "students", key = "#p0")
+    Student patchIfVersion(String id, Map<String, Object> fields, Long expectedVersion);
+}
@@ -0,0 +1,129 @@
+package com.example.webapp.repository;
+
+import com.example.webapp.model.PageCursor;
+import com.example.webapp.model.RosterEntry;
+import com.example.webapp.model.SelectOption;
+import com.example.webapp.model.Student;
+import com.example.webapp.model.StudentFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * MongoTemplate-based implementation of StudentRepositoryCustom
+ * Picked up by Spring Data as the fragment implementation ("Impl" suffix)
+ */
+public class StudentRepositoryCustomImpl implements StudentRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${bulk.batch-size:1000}")
+    private int bulkBatchSize;
+
+    @Override
+    public List<Student> findPage(StudentFilter filter, PageCursor after, int limit) {
+        List<Criteria> criteria = filterCriteria(filter);
+
+        boolean ascending = !"desc".equalsIgnoreCase(filter.getDirection());
+        String sortField = filter.getSort();
+
+        if (after != null) {
+            criteria.add(QueryUtils.keysetAfter(sortField, sortValue(sortField, after.getValue()), after.getId(), ascending));
+        }
+
+        Query query = QueryUtils.allOf(criteria);
+        Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        query.with(Sort.by(direction, sortField, "id")).limit(limit);
+
+        return mongoTemplate.find(query, Student.class);
+    }
+
+    @Override
+    public List<SelectOption> findOptions(StudentFilter filter, String search, int limit) {
+        List<Criteria> criteria = filterCriteria(filter);
+        if (search != null && !search.isEmpty()) {
+            // Both prefixes are anchored, so each side can use its index
+            String prefix = "^" + QueryUtils.escapeRegex(search);
+            criteria.add(new Criteria().orOperator(Criteria.where("nim").regex(prefix), Criteria.where("name").regex(prefix)));
+        }
+
+        Query query = QueryUtils.allOf(criteria);
+        query.fields().include("nim", "name");
+        query.with(Sort.by("nim")).limit(limit);
+
+        return mongoTemplate.find(query, Student.class).stream()
+            .map(s -> new SelectOption(s.getId(), s.getNim(), s.getName()))
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<RosterEntry> findRoster(Collection<String> studentIds, PageCursor after, int limit) {
+        List<Criteria> criteria = new ArrayList<>();
+        criteria.add(Criteria.where("id").in(studentIds));
+        if (after != null) {
+            criteria.add(QueryUtils.keysetAfter("nim", after.getValue(), after.getId(), true));
+        }
+
+        Query query = QueryUtils.allOf(criteria);
+        query.fields().include("nim", "name", "major", "batch", "status");
+        query.with(Sort.by("nim", "id")).limit(limit);
+
+        return mongoTemplate.find(query, Student.class).stream()
+            .map(s -> new RosterEntry(s.getId(), s.getNim(), s.getName(), s.getMajor(), s.getBatch(), s.getStatus()))
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public Map<Integer, String> bulkInsert(List<Student> students) {
+        return QueryUtils.insertUnordered(mongoTemplate, Student.class, students, bulkBatchSize);
+    }
+
+    @Override
+    public Student replaceIfVersion(Student student, Long expectedVersion) {
+        // The NIM is never rewritten; a body that gives one must give the stored one
+        Criteria match = Criteria.where("id").is(student.getId());
+        if (student.getNim() != null) {
+            match.and("nim").is(student.getNim());
+        }
+        return QueryUtils.replaceFields(mongoTemplate, student, Set.of("nim"), match, expectedVersion);
+    }
+
+    @Override
+    public Student patchIfVersion(String id, Map<String, Object> fields, Long expectedVersion) {
+        return QueryUtils.patchIfVersion(mongoTemplate, Student.class, id, fields, expectedVersion);
+    }
+
+    private List<Criteria> filterCriteria(StudentFilter filter) {
+        List<Criteria> criteria = new ArrayList<>();
+
+        if (filter.getMajor() != null && !filter.getMajor().isEmpty()) {
+            criteria.add(Criteria.where("major").is(filter.getMajor()));
+        }
+        if (filter.getBatch() != null) {
+            criteria.add(Criteria.where("batch").is(filter.getBatch()));
+        }
+        if (filter.getStatus() != null) {
+            criteria.add(Criteria.where("status").is(filter.getStatus()));
+        }
+        if (filter.getName() != null && !filter.getName().isEmpty()) {
+            criteria.add(Criteria.where("name").regex("^" + QueryUtils.escapeRegex(filter.getName())));
+        }
+
+        return criteria;
+    }
+
+    private Object sortValue(String sortField, String value) {
+        return "batch".equals(sortField) && value != null ? Integer.valueOf(value) : value;
+    }
+}
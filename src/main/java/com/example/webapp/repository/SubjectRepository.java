@@ -1,12 +1,71 @@
 package com.example.webapp.repository;
 
+import com.example.webapp.model.MajorCount;
 import com.example.webapp.model.Subject;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface SubjectRepository extends MongoRepository<Subject, String> {
+public interface SubjectRepository extends MongoRepository<Subject, String>, SubjectRepositoryCustom {
+    // Single-entity reads go through the "subjects" cache; writes evict the entry
+    // (sync, so a load overlapped by an eviction is not cached, see CacheConfig)
+    @Override
+    @Cacheable(cacheNames = "subjects", sync = true)
+    Optional<Subject> findById(String id);
+
+    @Override
+    @CacheEvict(cacheNames = "subjects", key = "#p0.id", condition = "#p0.id != null")
+    <S extends Subject> S save(S subject);
+
+    @Override
+    @CacheEvict("subjects")
+    void deleteById(String id);
+
     Optional<Subject> findByCode(String code);
+
+    // Only the major, code and version, read from the database (not the cache) for code decisions
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'major': 1, 'code': 1, 'version': 1 }")
+    Optional<Subject> findMajorAndCodeById(String id);
+
+    // Highest sequence number under one code prefix, compared as a number ("SI1000" > "SI999")
+    @Aggregation(pipeline = {
+        "{ $match: { code: { $regex: ?0 } } }",
+        "{ $group: { _id: null, sequence: { $max: { $toLong: { $substrCP: ['$code', 2, { $subtract: [{ $strLenCP: '$code' }, 2] }] } } } } }",
+        "{ $project: { _id: 0, sequence: 1 } }"
+    })
+    Optional<Long> findMaxCodeSequence(String codePattern);
+
+    // Only id and name, for resolving subject name references in bulk
+    @Query(value = "{ 'name': { $in: ?0 } }", fields = "{ 'name': 1 }")
+    List<Subject> findByNameIn(Collection<String> names);
+
+    // All subjects in code order, read lazily from a server-side cursor (close the stream)
+    @Meta(cursorBatchSize = 500)
+    Stream<Subject> streamAllByOrderByCodeAsc();
+
+    // Highest code for every major prefix (first 2 characters), by numeric sequence;
+    // returned as prefix + unpadded sequence, which is all advancing the counter reads
+    @Aggregation(pipeline = {
+        "{ $match: { code: { $regex: '^[A-Z]{2}[0-9]{3,}$' } } }",
+        "{ $group: { _id: { $substrCP: ['$code', 0, 2] }, sequence: { $max: { $toLong: { $substrCP: ['$code', 2, { $subtract: [{ $strLenCP: '$code' }, 2] }] } } } } }",
+        "{ $project: { _id: 0, code: { $concat: ['$_id', { $toString: '$sequence' }] } } }"
+    })
+    List<String> findHighestCodePerPrefix();
+
+    // Number of subjects per major, counted by the database
+    @Aggregation(pipeline = {
+        "{ $group: { _id: '$major', count: { $sum: 1 } } }",
+        "{ $project: { _id: 0, major: '$_id', count: 1 } }"
+    })
+    List<MajorCount> countByMajor();
 }
@@ -0,0 +1,35 @@
+package com.example.webapp.repository;
+
+import com.example.webapp.model.PageCursor;
+import com.example.webapp.model.SelectOption;
+import com.example.webapp.model.Subject;
+import com.example.webapp.model.SubjectFilter;
+import org.springframework.cache.annotation.CacheEvict;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Custom query methods for Subject that need MongoTemplate
+ */
+public interface SubjectRepositoryCustom {
+
+    // Keyset page: subjects matching the filter, sorted by code then id, after the cursor
+    List<Subject> findPage(SubjectFilter filter, PageCursor after, int limit);
+
+    // Only id, code and name of the subjects matching the filter, sorted by code
+    List<SelectOption> findOptions(SubjectFilter filter);
+
+    // Unordered bulk insert; returns error messages by list index for the rows that failed
+    Map<Integer, String> bulkInsert(List<Subject> subjects);
+
+    // Replace the subject and bump the version in one update, optionally only if the stored
+    // version matches; returns the previous document, or null when nothing matched
+    @CacheEvict(cacheNames = "subjects", key = "#p0.id")
+    Subject replaceIfVersion(Subject subject, Long expectedVersion);
+
+    // Set (or unset, for null values) only the given fields and bump the version, optionally only
+    // if the stored version matches; returns the previous document, or null when nothing matched
+    @CacheEvict(cacheNames = "subjects", key = "#p0")
+    Subject patchIfVersion(String id, Map<String, Object> fields, Long expectedVersion);
+}
@@ -0,0 +1,86 @@
+package com.example.webapp.repository;
+
+import com.example.webapp.model.PageCursor;
+import com.example.webapp.model.SelectOption;
+import com.example.webapp.model.Subject;
+import com.example.webapp.model.SubjectFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * MongoTemplate-based implementation of SubjectRepositoryCustom
+ * Picked up by Spring Data as the fragment implementation ("Impl" suffix)
+ */
+public class SubjectRepositoryCustomImpl implements SubjectRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${bulk.batch-size:1000}")
+    private int bulkBatchSize;
+
+    @Override
+    public List<Subject> findPage(SubjectFilter filter, PageCursor after, int limit) {
+        List<Criteria> criteria = filterCriteria(filter);
+        if (after != null) {
+            criteria.add(QueryUtils.keysetAfter("code", after.getValue(), after.getId(), true));
+        }
+
+        Query query = QueryUtils.allOf(criteria);
+        query.with(Sort.by("code", "id")).limit(limit);
+
+        return mongoTemplate.find(query, Subject.class);
+    }
+
+    @Override
+    public List<SelectOption> findOptions(SubjectFilter filter) {
+        Query query = QueryUtils.allOf(filterCriteria(filter));
+        query.fields().include("code", "name");
+        query.with(Sort.by("code"));
+
+        return mongoTemplate.find(query, Subject.class).stream()
+            .map(s -> new SelectOption(s.getId(), s.getCode(), s.getName()))
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public Map<Integer, String> bulkInsert(List<Subject> subjects) {
+        return QueryUtils.insertUnordered(mongoTemplate, Subject.class, subjects, bulkBatchSize);
+    }
+
+    @Override
+    public Subject replaceIfVersion(Subject subject, Long expectedVersion) {
+        return QueryUtils.replaceFields(mongoTemplate, subject, Set.of(), expectedVersion);
+    }
+
+    @Override
+    public Subject patchIfVersion(String id, Map<String, Object> fields, Long expectedVersion) {
+        return QueryUtils.patchIfVersion(mongoTemplate, Subject.class, id, fields, expectedVersion);
+    }
+
+    private List<Criteria> filterCriteria(SubjectFilter filter) {
+        List<Criteria> criteria = new ArrayList<>();
+
+        if (filter.getMajor() != null && !filter.getMajor().isEmpty()) {
+            criteria.add(Criteria.where("major").is(filter.getMajor()));
+        }
+        if (filter.getSks() != null) {
+            criteria.add(Criteria.where("sks").is(filter.getSks()));
+        }
+        if (filter.getCode() != null && !filter.getCode().isEmpty()) {
+            criteria.add(Criteria.where("code").regex("^" + QueryUtils.escapeRegex(filter.getCode())));
+        }
+
+        return criteria;
+    }
+}
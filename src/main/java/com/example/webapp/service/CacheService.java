@@ -0,0 +1,21 @@
+package com.example.webapp.service;
+
+import com.example.webapp.model.CacheMetrics;
+
+import java.util.List;
+
+/**
+ * Service interface for the entity caches in front of the repositories
+ */
+public interface CacheService {
+
+    /**
+     * Get hit/miss/eviction counters of every cache
+     */
+    List<CacheMetrics> getCacheMetrics();
+
+    /**
+     * Drop every cached entry
+     */
+    void clearCaches();
+}
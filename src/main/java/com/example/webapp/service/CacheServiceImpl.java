@@ -0,0 +1,51 @@
+package com.example.webapp.service;
+
+import com.example.webapp.model.CacheMetrics;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service implementation for the entity caches
+ * Counters come from Caffeine (spring.cache.caffeine.spec must include recordStats)
+ */
+@Slf4j
+@Service
+public class CacheServiceImpl implements CacheService {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Override
+    public List<CacheMetrics> getCacheMetrics() {
+        List<CacheMetrics> metrics = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof CaffeineCache caffeineCache) {
+                com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+                CacheStats stats = nativeCache.stats();
+                metrics.add(new CacheMetrics(name, nativeCache.estimatedSize(), stats.hitCount(),
+                    stats.missCount(), stats.hitRate(), stats.evictionCount()));
+            }
+        }
+        return metrics;
+    }
+
+    @Override
+    public void clearCaches() {
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        log.info("Cleared caches: {}", cacheManager.getCacheNames());
+    }
+}
@@ -1,8 +1,15 @@
 package com.example.webapp.service;
 
+import com.example.webapp.model.BulkResult;
 import com.example.webapp.model.ClassRoom;
+import com.example.webapp.model.ClassRoomFilter;
+import com.example.webapp.model.CursorPage;
+import com.example.webapp.model.EnrollmentRequest;
+import com.example.webapp.model.EnrollmentResult;
+import com.example.webapp.model.RosterEntry;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -11,11 +18,17 @@ import java.util.Optional;
  */
 public interface ClassRoomService {
     List<ClassRoom> getAllClasses();
+    CursorPage<ClassRoom> getClassPage(ClassRoomFilter filter);
     Optional<ClassRoom> getClassById(String id);
+    Optional<CursorPage<RosterEntry>> getClassRoster(String classId, String cursor, Integer size);
     ClassRoom createClass(ClassRoom classRoom);
+    BulkResult bulkCreateClasses(List<ClassRoom> classes);
     ClassRoom updateClass(String id, ClassRoom classRoom);
+    Optional<ClassRoom> patchClass(String id, Map<String, Object> patch, Long expectedVersion);
     void deleteClass(String id);
     ClassRoom addStudentToClass(String classId, String studentId);
     ClassRoom removeStudentFromClass(String classId, String studentId);
+    Optional<EnrollmentResult> updateEnrollment(String classId, EnrollmentRequest request);
     long countClasses();
+    void syncCodeSequences();
 }
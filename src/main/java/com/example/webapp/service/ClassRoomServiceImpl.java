@@ -1,47 +1,119 @@
 package com.example.webapp.service;
 
+import com.example.webapp.model.BulkResult;
+import com.example.webapp.model.BulkRowResult;
 import com.example.webapp.model.ClassRoom;
+import com.example.webapp.model.ClassRoomFilter;
+import com.example.webapp.model.CursorPage;
+import com.example.webapp.model.EnrollmentItemResult;
+import com.example.webapp.model.EnrollmentRequest;
+import com.example.webapp.model.EnrollmentResult;
+import com.example.webapp.model.PageCursor;
+import com.example.webapp.model.RosterEntry;
+import com.example.webapp.model.SelectOption;
+import com.example.webapp.model.Student;
+import com.example.webapp.model.StudentFilter;
 import com.example.webapp.repository.ClassRoomRepository;
+import com.example.webapp.repository.StudentRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service implementation for ClassRoom operations
  * Contains all business logic for class management
  */
 @Service
+@Timed(value = "webapp.service", histogram = true)
 public class ClassRoomServiceImpl implements ClassRoomService {
 
+    private static final String CODE_PREFIX = "KLS";
+    private static final String CODE_SEQUENCE_KEY = "class:" + CODE_PREFIX;
+    // Batch (4) + major (2) + a sequence of at least 4 digits, which grows past 9999
+    private static final String NIM_FORMAT = "^[0-9]{10,}$";
+    // Enrollment goes through the $addToSet/$pull endpoints; neither PATCH nor PUT rewrites studentIds
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("code", "name", "subjectId", "subjectName", "semester", "year");
+    private static final Set<String> REQUIRED_FIELDS = Set.of("code", "name", "subjectName");
+
     @Autowired
     private ClassRoomRepository classRoomRepository;
 
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SequenceService sequenceService;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${pagination.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${pagination.max-size:100}")
+    private int maxPageSize;
+
     @Override
     public List<ClassRoom> getAllClasses() {
         return classRoomRepository.findAll();
     }
 
+    @Override
+    public CursorPage<ClassRoom> getClassPage(ClassRoomFilter filter) {
+        PageCursor after = Pagination.decodeCursor(filter.getCursor(), "code");
+        int size = Pagination.pageSize(filter.getSize(), defaultPageSize, maxPageSize);
+
+        // Fetch one extra row to know whether another page follows
+        List<ClassRoom> classes = classRoomRepository.findPage(filter, after, size + 1);
+        return Pagination.toPage(classes, size, last -> new PageCursor("code", last.getId(), last.getCode()));
+    }
+
     @Override
     public Optional<ClassRoom> getClassById(String id) {
         return classRoomRepository.findById(id);
     }
 
+    @Override
+    public Optional<CursorPage<RosterEntry>> getClassRoster(String classId, String cursor, Integer size) {
+        PageCursor after = Pagination.decodeCursor(cursor, "nim");
+        int pageSize = Pagination.pageSize(size, defaultPageSize, maxPageSize);
+
+        // Two indexed reads: the class's studentIds, then one $in page of students
+        return classRoomRepository.findStudentIdsById(classId).map(classRoom -> {
+            if (classRoom.getStudentIds() == null || classRoom.getStudentIds().isEmpty()) {
+                return new CursorPage<RosterEntry>(new ArrayList<>(), null);
+            }
+            List<RosterEntry> rows = studentRepository.findRoster(classRoom.getStudentIds(), after, pageSize + 1);
+            return Pagination.toPage(rows, pageSize, last -> new PageCursor("nim", last.getId(), last.getNim()));
+        });
+    }
+
     @Override
     public ClassRoom createClass(ClassRoom classRoom) {
         // Validate class data
-        if (classRoom.getName() == null || classRoom.getName().trim().isEmpty()) {
-            throw new IllegalArgumentException("Class name cannot be empty");
-        }
-        if (classRoom.getSubjectName() == null || classRoom.getSubjectName().trim().isEmpty()) {
-            throw new IllegalArgumentException("Subject name cannot be empty");
-        }
+        validateClass(classRoom);
 
         // Auto-generate code if not provided
         if (classRoom.getCode() == null || classRoom.getCode().trim().isEmpty()) {
             classRoom.setCode(generateClassCode());
+        } else {
+            // Keep the sequence ahead of codes supplied by the caller
+            reserveClassCode(classRoom.getCode());
         }
 
         // Initialize empty student list if null
@@ -49,19 +121,113 @@ public class ClassRoomServiceImpl implements ClassRoomService {
             classRoom.setStudentIds(new ArrayList<>());
         }
 
+        // Always an insert; the version starts at 0
+        classRoom.setVersion(null);
         return classRoomRepository.save(classRoom);
     }
 
+    @Override
+    public BulkResult bulkCreateClasses(List<ClassRoom> classes) {
+        BulkRowResult[] results = new BulkRowResult[classes.size()];
+        List<Integer> validIndexes = new ArrayList<>();
+        List<ClassRoom> needCode = new ArrayList<>();
+        long suppliedMax = 0;
+
+        // Pass 1: validate every row
+        for (int i = 0; i < classes.size(); i++) {
+            ClassRoom classRoom = classes.get(i);
+            try {
+                if (classRoom == null) {
+                    throw new IllegalArgumentException("Row is empty");
+                }
+                validateClass(classRoom);
+            } catch (IllegalArgumentException e) {
+                results[i] = BulkRowResult.failed(i, e.getMessage());
+                continue;
+            }
+            validIndexes.add(i);
+
+            if (classRoom.getCode() == null || classRoom.getCode().trim().isEmpty()) {
+                needCode.add(classRoom);
+            } else if (classRoom.getCode().startsWith(CODE_PREFIX)) {
+                suppliedMax = Math.max(suppliedMax, parseCodeSequence(classRoom.getCode()));
+            }
+            if (classRoom.getStudentIds() == null) {
+                classRoom.setStudentIds(new ArrayList<>());
+            }
+        }
+
+        // Pass 2: a single counter round trip for all generated codes
+        if (suppliedMax > 0) {
+            sequenceService.advanceTo(CODE_SEQUENCE_KEY, suppliedMax);
+        }
+        if (!needCode.isEmpty()) {
+            long first = sequenceService.nextRange(CODE_SEQUENCE_KEY, needCode.size(), this::findMaxCodeSequence);
+            for (int n = 0; n < needCode.size(); n++) {
+                needCode.get(n).setCode(String.format("%s%03d", CODE_PREFIX, first + n));
+            }
+        }
+
+        // Pass 3: unordered bulk insert, ids assigned up front so results can report them
+        List<ClassRoom> valid = new ArrayList<>();
+        for (int index : validIndexes) {
+            ClassRoom classRoom = classes.get(index);
+            classRoom.setId(new ObjectId().toHexString());
+            classRoom.setVersion(0L);
+            valid.add(classRoom);
+        }
+        Map<Integer, String> errors = classRoomRepository.bulkInsert(valid);
+
+        for (int v = 0; v < valid.size(); v++) {
+            int index = validIndexes.get(v);
+            ClassRoom classRoom = valid.get(v);
+            results[index] = errors.containsKey(v)
+                ? BulkRowResult.failed(index, errors.get(v))
+                : BulkRowResult.created(index, classRoom.getId(), classRoom.getCode());
+        }
+
+        return BulkResult.of(Arrays.asList(results));
+    }
+
     @Override
     public ClassRoom updateClass(String id, ClassRoom classRoom) {
-        // Check if class exists
-        Optional<ClassRoom> existingClass = classRoomRepository.findById(id);
-        if (existingClass.isEmpty()) {
-            throw new IllegalArgumentException("Class not found with id: " + id);
+        // Without an explicit version the client gets last-write-wins against the current revision
+        Long expectedVersion = classRoom.getVersion();
+
+        // Keep the sequence ahead of a code set by the caller (before the write, so no generated code can take it)
+        if (classRoom.getCode() != null) {
+            reserveClassCode(classRoom.getCode());
         }
 
         classRoom.setId(id);
-        return classRoomRepository.save(classRoom);
+        ClassRoom previous = classRoomRepository.replaceIfVersion(classRoom, expectedVersion);
+        if (previous == null) {
+            if (expectedVersion != null && classRoomRepository.existsById(id)) {
+                throw new OptimisticLockingFailureException("Class " + id + " was modified by another request");
+            }
+            throw new IllegalArgumentException("Class not found with id: " + id);
+        }
+        // The roster is not part of a PUT; it stays as stored
+        classRoom.setStudentIds(previous.getStudentIds());
+        classRoom.setVersion(nextVersion(previous));
+        return classRoom;
+    }
+
+    @Override
+    public Optional<ClassRoom> patchClass(String id, Map<String, Object> patch, Long expectedVersion) {
+        Map<String, Object> fields = MergePatch.fieldValues(ClassRoom.class, patch, PATCHABLE_FIELDS, REQUIRED_FIELDS, validator);
+        if (fields.get("code") instanceof String code) {
+            reserveClassCode(code);
+        }
+
+        ClassRoom previous = classRoomRepository.patchIfVersion(id, fields, expectedVersion);
+        if (previous == null) {
+            if (expectedVersion != null && classRoomRepository.existsById(id)) {
+                throw new OptimisticLockingFailureException("Class " + id + " was modified by another request");
+            }
+            return Optional.empty();
+        }
+        return Optional.of(MergePatch.applied(previous, fields));
     }
 
     @Override
@@ -77,42 +243,155 @@ public class ClassRoomServiceImpl implements ClassRoomService {
 
     @Override
     public ClassRoom addStudentToClass(String classId, String studentId) {
-        Optional<ClassRoom> classRoomOpt = classRoomRepository.findById(classId);
-        if (classRoomOpt.isEmpty()) {
+        return addStudentsToClass(classId, List.of(studentId));
+    }
+
+    @Override
+    public ClassRoom removeStudentFromClass(String classId, String studentId) {
+        return removeStudentsFromClass(classId, List.of(studentId));
+    }
+
+    /**
+     * Add students to a class with one atomic $addToSet
+     */
+    private ClassRoom addStudentsToClass(String classId, Collection<String> studentIds) {
+        Set<String> requested = normalizeStudentIds(studentIds);
+
+        if (requested.isEmpty()) {
+            return classRoomRepository.findById(classId)
+                .orElseThrow(() -> new IllegalArgumentException("Class not found with id: " + classId));
+        }
+
+        // One atomic $addToSet, so concurrent enrollments never overwrite each other
+        ClassRoom classRoom = classRoomRepository.addStudents(classId, requested);
+        if (classRoom == null) {
             throw new IllegalArgumentException("Class not found with id: " + classId);
         }
 
-        ClassRoom classRoom = classRoomOpt.get();
+        // Apply the same change to the returned document ($addToSet appends only new IDs)
+        Set<String> enrolled = classRoom.enrolledStudentIds();
+        enrolled.addAll(requested);
+        classRoom.setStudentIds(new ArrayList<>(enrolled));
+        classRoom.setVersion(nextVersion(classRoom));
+        return classRoom;
+    }
 
-        // Initialize student list if null
-        if (classRoom.getStudentIds() == null) {
-            classRoom.setStudentIds(new ArrayList<>());
+    /**
+     * Remove students from a class with one atomic $pull
+     */
+    private ClassRoom removeStudentsFromClass(String classId, Collection<String> studentIds) {
+        Set<String> requested = normalizeStudentIds(studentIds);
+
+        if (requested.isEmpty()) {
+            return classRoomRepository.findById(classId)
+                .orElseThrow(() -> new IllegalArgumentException("Class not found with id: " + classId));
         }
 
-        // Add student if not already in the class
-        if (!classRoom.getStudentIds().contains(studentId)) {
-            classRoom.getStudentIds().add(studentId);
-            return classRoomRepository.save(classRoom);
+        // One atomic $pull, the rest of the document is left untouched
+        ClassRoom classRoom = classRoomRepository.removeStudents(classId, requested);
+        if (classRoom == null) {
+            throw new IllegalArgumentException("Class not found with id: " + classId);
         }
 
+        Set<String> enrolled = classRoom.enrolledStudentIds();
+        enrolled.removeAll(requested);
+        classRoom.setStudentIds(new ArrayList<>(enrolled));
+        classRoom.setVersion(nextVersion(classRoom));
         return classRoom;
     }
 
     @Override
-    public ClassRoom removeStudentFromClass(String classId, String studentId) {
-        Optional<ClassRoom> classRoomOpt = classRoomRepository.findById(classId);
-        if (classRoomOpt.isEmpty()) {
-            throw new IllegalArgumentException("Class not found with id: " + classId);
+    public Optional<EnrollmentResult> updateEnrollment(String classId, EnrollmentRequest request) {
+        List<String> addValues = request.getAdd() != null ? request.getAdd() : List.of();
+        List<String> removeValues = request.getRemove() != null ? request.getRemove() : List.of();
+        StudentFilter cohort = request.getCohort();
+        if (cohort != null && (cohort.getMajor() == null || cohort.getMajor().isEmpty()) && cohort.getBatch() == null) {
+            throw new IllegalArgumentException("Cohort needs a major or a batch");
         }
 
-        ClassRoom classRoom = classRoomOpt.get();
+        // Resolve every ID and NIM with one $in query each
+        Set<String> values = new HashSet<>(addValues);
+        values.addAll(removeValues);
+        Map<String, String> studentIds = resolveStudentIds(values);
+
+        List<EnrollmentItemResult> items = new ArrayList<>();
+        for (String value : addValues) {
+            String studentId = studentIds.get(value);
+            items.add(studentId != null
+                ? EnrollmentItemResult.resolved(value, EnrollmentItemResult.ADD, studentId)
+                : EnrollmentItemResult.failed(value, EnrollmentItemResult.ADD, "Student not found"));
+        }
+        if (cohort != null) {
+            // Whole cohort from a single projected query
+            for (SelectOption student : studentRepository.findOptions(cohort, null, 0)) {
+                items.add(EnrollmentItemResult.resolved(student.getCode(), EnrollmentItemResult.ADD, student.getId()));
+            }
+        }
+        for (String value : removeValues) {
+            // IDs of students that no longer exist can still be removed from the class
+            String studentId = studentIds.getOrDefault(value, ObjectId.isValid(value) ? value : null);
+            items.add(studentId != null
+                ? EnrollmentItemResult.resolved(value, EnrollmentItemResult.REMOVE, studentId)
+                : EnrollmentItemResult.failed(value, EnrollmentItemResult.REMOVE, "Student not found"));
+        }
 
-        if (classRoom.getStudentIds() != null) {
-            classRoom.getStudentIds().remove(studentId);
-            return classRoomRepository.save(classRoom);
+        Set<String> addIds = new LinkedHashSet<>();
+        Set<String> removeIds = new LinkedHashSet<>();
+        for (EnrollmentItemResult item : items) {
+            if (!item.isSuccess()) {
+                continue;
+            }
+            if (EnrollmentItemResult.ADD.equals(item.getAction())) {
+                addIds.add(item.getStudentId());
+            } else {
+                removeIds.add(item.getStudentId());
+            }
         }
 
-        return classRoom;
+        // A student listed on both sides is ambiguous, so neither change is applied
+        Set<String> conflicts = new HashSet<>(addIds);
+        conflicts.retainAll(removeIds);
+        if (!conflicts.isEmpty()) {
+            addIds.removeAll(conflicts);
+            removeIds.removeAll(conflicts);
+            for (EnrollmentItemResult item : items) {
+                if (item.isSuccess() && conflicts.contains(item.getStudentId())) {
+                    item.setSuccess(false);
+                    item.setMessage("Listed in both add and remove");
+                }
+            }
+        }
+
+        boolean unchanged = addIds.isEmpty() && removeIds.isEmpty();
+        ClassRoom classRoom = unchanged
+            ? classRoomRepository.findStudentIdsById(classId).orElse(null)
+            : classRoomRepository.updateEnrollment(classId, addIds, removeIds);
+        if (classRoom == null) {
+            return Optional.empty();
+        }
+        Long version = unchanged ? classRoom.getVersion() : Long.valueOf(nextVersion(classRoom));
+
+        // Outcomes are read off the class as it was right before the atomic update
+        Set<String> before = classRoom.enrolledStudentIds();
+        int added = 0;
+        int removed = 0;
+        int failed = 0;
+        for (EnrollmentItemResult item : items) {
+            if (!item.isSuccess()) {
+                failed++;
+            } else if (EnrollmentItemResult.ADD.equals(item.getAction())) {
+                boolean isNew = !before.contains(item.getStudentId()) && addIds.remove(item.getStudentId());
+                item.setMessage(isNew ? "added" : "already enrolled");
+                added += isNew ? 1 : 0;
+            } else {
+                boolean wasEnrolled = before.contains(item.getStudentId()) && removeIds.remove(item.getStudentId());
+                item.setMessage(wasEnrolled ? "removed" : "not enrolled");
+                removed += wasEnrolled ? 1 : 0;
+            }
+        }
+
+        int enrolled = before.size() + added - removed;
+        return Optional.of(new EnrollmentResult(classId, added, removed, failed, enrolled, version, items));
     }
 
     @Override
@@ -120,31 +399,114 @@ public class ClassRoomServiceImpl implements ClassRoomService {
         return classRoomRepository.count();
     }
 
+    @Override
+    public void syncCodeSequences() {
+        long sequence = findMaxCodeSequence();
+        if (sequence > 0) {
+            sequenceService.advanceTo(CODE_SEQUENCE_KEY, sequence);
+        }
+    }
+
+    /**
+     * Business validation shared by single and bulk create
+     */
+    private void validateClass(ClassRoom classRoom) {
+        if (classRoom.getName() == null || classRoom.getName().trim().isEmpty()) {
+            throw new IllegalArgumentException("Class name cannot be empty");
+        }
+        if (classRoom.getSubjectName() == null || classRoom.getSubjectName().trim().isEmpty()) {
+            throw new IllegalArgumentException("Subject name cannot be empty");
+        }
+    }
+
+    /**
+     * Version the atomic update gave the class ($inc on version)
+     */
+    private long nextVersion(ClassRoom before) {
+        return before.getVersion() == null ? 1L : before.getVersion() + 1;
+    }
+
+    /**
+     * Distinct, non-blank student IDs in request order
+     */
+    private Set<String> normalizeStudentIds(Collection<String> studentIds) {
+        Set<String> normalized = new LinkedHashSet<>();
+        if (studentIds != null) {
+            for (String studentId : studentIds) {
+                if (studentId != null && !studentId.trim().isEmpty()) {
+                    normalized.add(studentId.trim());
+                }
+            }
+        }
+        return normalized;
+    }
+
+    /**
+     * Map each submitted value (NIM or student ID) to the ID of an existing student
+     */
+    private Map<String, String> resolveStudentIds(Collection<String> values) {
+        List<String> nims = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+        for (String value : values) {
+            if (value == null) {
+                continue;
+            }
+            if (value.matches(NIM_FORMAT)) {
+                nims.add(value);
+            } else if (ObjectId.isValid(value)) {
+                ids.add(value);
+            }
+        }
+
+        Map<String, String> studentIds = new HashMap<>();
+        if (!nims.isEmpty()) {
+            for (Student student : studentRepository.findByNimIn(nims)) {
+                studentIds.put(student.getNim(), student.getId());
+            }
+        }
+        if (!ids.isEmpty()) {
+            for (Student student : studentRepository.findByIdIn(ids)) {
+                studentIds.put(student.getId(), student.getId());
+            }
+        }
+        return studentIds;
+    }
+
     /**
      * Generate class code with format: KLS###
      * KLS = Kelas
-     * ### = sequence number (001, 002, etc.)
+     * ### = sequence number (001, 002, etc.), allocated by SequenceService
      */
     private String generateClassCode() {
-        List<ClassRoom> existingClasses = classRoomRepository.findAll();
-        int maxSequence = 0;
-
-        String prefix = "KLS";
-        for (ClassRoom c : existingClasses) {
-            if (c.getCode() != null && c.getCode().startsWith(prefix)) {
-                try {
-                    int sequence = Integer.parseInt(c.getCode().substring(3));
-                    if (sequence > maxSequence) {
-                        maxSequence = sequence;
-                    }
-                } catch (Exception e) {
-                    // Skip invalid code format
-                }
+        long sequence = sequenceService.nextValue(CODE_SEQUENCE_KEY, this::findMaxCodeSequence);
+        return String.format("%s%03d", CODE_PREFIX, sequence);
+    }
+
+    /**
+     * Find the highest sequence number already used for class codes
+     */
+    private long findMaxCodeSequence() {
+        return classRoomRepository.findMaxCodeSequence().orElse(0L);
+    }
+
+    /**
+     * Advance the class code sequence past a code that was provided explicitly
+     */
+    private void reserveClassCode(String code) {
+        if (code.startsWith(CODE_PREFIX)) {
+            long sequence = parseCodeSequence(code);
+            if (sequence > 0) {
+                sequenceService.advanceTo(CODE_SEQUENCE_KEY, sequence);
             }
         }
+    }
 
-        // Generate new code with next sequence number
-        int newSequence = maxSequence + 1;
-        return String.format("%s%03d", prefix, newSequence);
+    private long parseCodeSequence(String code) {
+        try {
+            return Long.parseLong(code.substring(CODE_PREFIX.length()));
+        } catch (Exception e) {
+            // Skip invalid code format
+            return 0L;
+        }
     }
 }
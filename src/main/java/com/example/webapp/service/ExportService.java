@@ -0,0 +1,32 @@
+package com.example.webapp.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Service interface for streaming exports
+ * Documents are read from a Mongo cursor and written one at a time as
+ * NDJSON (one JSON object per line) or CSV (with header)
+ */
+public interface ExportService {
+
+    /**
+     * Check whether the given export format is supported (ndjson or csv)
+     */
+    boolean isSupportedFormat(String format);
+
+    /**
+     * Export all students, returns the number of records written
+     */
+    long exportStudents(OutputStream output, String format) throws IOException;
+
+    /**
+     * Export all subjects, returns the number of records written
+     */
+    long exportSubjects(OutputStream output, String format) throws IOException;
+
+    /**
+     * Export all classes (studentIds separated by ';' in CSV), returns the number of records written
+     */
+    long exportClasses(OutputStream output, String format) throws IOException;
+}
@@ -0,0 +1,130 @@
+package com.example.webapp.service;
+
+import com.example.webapp.model.ClassRoom;
+import com.example.webapp.model.Student;
+import com.example.webapp.model.Subject;
+import com.example.webapp.repository.ClassRoomRepository;
+import com.example.webapp.repository.StudentRepository;
+import com.example.webapp.repository.SubjectRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service implementation for streaming exports
+ * Only one cursor batch and one output buffer (export.buffer-size) are held
+ * in memory at a time, whatever the collection size
+ */
+@Slf4j
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    private static final String FORMAT_NDJSON = "ndjson";
+    private static final String FORMAT_CSV = "csv";
+
+    private static final CsvSchema STUDENT_COLUMNS = CsvSchema.builder()
+        .addColumn("id").addColumn("nim").addColumn("name").addColumn("email")
+        .addColumn("major").addColumn("batch").addColumn("status")
+        .build().withHeader();
+
+    private static final CsvSchema SUBJECT_COLUMNS = CsvSchema.builder()
+        .addColumn("id").addColumn("code").addColumn("name").addColumn("major").addColumn("sks")
+        .build().withHeader();
+
+    private static final CsvSchema CLASS_COLUMNS = CsvSchema.builder()
+        .addColumn("id").addColumn("code").addColumn("name").addColumn("subjectId")
+        .addColumn("subjectName").addColumn("semester").addColumn("year")
+        .addArrayColumn("studentIds", ";")
+        .build().withHeader();
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private ClassRoomRepository classRoomRepository;
+
+    @Value("${export.buffer-size:65536}")
+    private int bufferSize;
+
+    // Streams are closed by the caller (the servlet response), not by Jackson
+    private final ObjectMapper jsonMapper = new ObjectMapper()
+        .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+
+    // Properties outside the declared columns (e.g. transient fields) are skipped
+    private final CsvMapper csvMapper = (CsvMapper) new CsvMapper()
+        .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)
+        .configure(JsonGenerator.Feature.IGNORE_UNKNOWN, true);
+
+    @Override
+    public boolean isSupportedFormat(String format) {
+        return FORMAT_NDJSON.equalsIgnoreCase(format) || FORMAT_CSV.equalsIgnoreCase(format);
+    }
+
+    @Override
+    public long exportStudents(OutputStream output, String format) throws IOException {
+        try (Stream<Student> students = studentRepository.streamAllByOrderByNimAsc()) {
+            return write("students", students.iterator(), output, writerFor(Student.class, format, STUDENT_COLUMNS));
+        }
+    }
+
+    @Override
+    public long exportSubjects(OutputStream output, String format) throws IOException {
+        try (Stream<Subject> subjects = subjectRepository.streamAllByOrderByCodeAsc()) {
+            return write("subjects", subjects.iterator(), output, writerFor(Subject.class, format, SUBJECT_COLUMNS));
+        }
+    }
+
+    @Override
+    public long exportClasses(OutputStream output, String format) throws IOException {
+        try (Stream<ClassRoom> classes = classRoomRepository.streamAllByOrderByCodeAsc()) {
+            return write("classes", classes.iterator(), output, writerFor(ClassRoom.class, format, CLASS_COLUMNS));
+        }
+    }
+
+    private ObjectWriter writerFor(Class<?> type, String format, CsvSchema columns) {
+        if (FORMAT_CSV.equalsIgnoreCase(format)) {
+            return csvMapper.writerFor(type).with(columns);
+        }
+        if (FORMAT_NDJSON.equalsIgnoreCase(format)) {
+            return jsonMapper.writerFor(type).withRootValueSeparator("\n");
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + format);
+    }
+
+    /**
+     * Write records as they come off the cursor; the buffer is flushed to the
+     * client whenever it fills, so nothing accumulates per request
+     */
+    private <T> long write(String name, Iterator<T> records, OutputStream output, ObjectWriter writer) throws IOException {
+        long start = System.nanoTime();
+        long count = 0;
+
+        BufferedOutputStream buffered = new BufferedOutputStream(output, bufferSize);
+        try (SequenceWriter sequence = writer.writeValues(buffered)) {
+            while (records.hasNext()) {
+                sequence.write(records.next());
+                count++;
+            }
+        }
+        buffered.flush();
+
+        log.info("Exported {} {} in {} ms", count, name, (System.nanoTime() - start) / 1_000_000);
+        return count;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.webapp.service;
+
+import com.example.webapp.model.ImportReport;
+
+import java.io.InputStream;
+
+/**
+ * Service interface for streaming imports
+ * Records are read one at a time from JSON (top-level array) or CSV (with header)
+ * and written in fixed-size chunks, so memory stays flat regardless of input size
+ */
+public interface ImportService {
+
+    /**
+     * Import students (CSV columns: nim,name,email,major,batch,status)
+     */
+    ImportReport importStudents(InputStream input, String format, String source);
+
+    /**
+     * Import subjects (CSV columns: name,major,sks)
+     */
+    ImportReport importSubjects(InputStream input, String format, String source);
+
+    /**
+     * Import classes (CSV columns: code,name,subjectName,semester,year,studentNims
+     * with NIMs separated by ';'); subject names and NIMs are resolved per chunk
+     */
+    ImportReport importClasses(InputStream input, String format, String source);
+}
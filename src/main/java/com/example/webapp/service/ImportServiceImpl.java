@@ -0,0 +1,235 @@
+package com.example.webapp.service;
+
+import com.example.webapp.model.BulkResult;
+import com.example.webapp.model.BulkRowResult;
+import com.example.webapp.model.ClassRoom;
+import com.example.webapp.model.ImportReport;
+import com.example.webapp.model.Student;
+import com.example.webapp.model.Subject;
+import com.example.webapp.repository.StudentRepository;
+import com.example.webapp.repository.SubjectRepository;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Service implementation for streaming imports
+ * Parses records one at a time (Jackson JsonParser / CSV parser), groups them
+ * into chunks of import.chunk-size and hands each chunk to the bulk create
+ * methods as soon as it fills. Progress and throughput are logged per chunk.
+ */
+@Slf4j
+@Service
+public class ImportServiceImpl implements ImportService {
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private SubjectService subjectService;
+
+    @Autowired
+    private ClassRoomService classRoomService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Value("${import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${import.max-errors:100}")
+    private int maxErrors;
+
+    private final ObjectMapper jsonMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final CsvMapper csvMapper = (CsvMapper) new CsvMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Override
+    public ImportReport importStudents(InputStream input, String format, String source) {
+        return runImport(input, format, source, Student.class, studentService::bulkCreateStudents);
+    }
+
+    @Override
+    public ImportReport importSubjects(InputStream input, String format, String source) {
+        return runImport(input, format, source, Subject.class, subjectService::bulkCreateSubjects);
+    }
+
+    @Override
+    public ImportReport importClasses(InputStream input, String format, String source) {
+        return runImport(input, format, source, ClassRoom.class,
+            chunk -> classRoomService.bulkCreateClasses(resolveClassReferences(chunk)));
+    }
+
+    /**
+     * Read records one by one and write them chunk by chunk
+     */
+    private <T> ImportReport runImport(InputStream input, String format, String source, Class<T> type,
+                                       Function<List<T>, BulkResult> writer) {
+        ImportReport report = new ImportReport();
+        report.setSource(source);
+        long start = System.nanoTime();
+
+        try (MappingIterator<T> records = openRecords(input, format, type)) {
+            List<T> chunk = new ArrayList<>(chunkSize);
+            List<Long> positions = new ArrayList<>(chunkSize);
+            long position = 0;
+
+            while (true) {
+                T record;
+                try {
+                    if (!records.hasNextValue()) {
+                        break;
+                    }
+                    record = records.nextValue();
+                } catch (DatabindException e) {
+                    // Record that does not map (e.g. text in a number column):
+                    // count it and let the iterator resync on the next record
+                    report.setRead(report.getRead() + 1);
+                    report.setFailed(report.getFailed() + 1);
+                    addError(report, "Record " + position + ": " + e.getOriginalMessage());
+                    position++;
+                    continue;
+                }
+
+                report.setRead(report.getRead() + 1);
+                chunk.add(record);
+                positions.add(position++);
+
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, positions, writer, report, start);
+                    chunk = new ArrayList<>(chunkSize);
+                    positions = new ArrayList<>(chunkSize);
+                }
+            }
+
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, positions, writer, report, start);
+            }
+        } catch (IOException e) {
+            // Broken syntax cannot be resynced, stop with what was written so far
+            log.error("Import {} stopped: {}", source, e.getMessage());
+            addError(report, "Import stopped: " + e.getMessage());
+        }
+
+        report.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        report.setRecordsPerSecond(throughput(report.getRead(), start));
+        log.info("Import {} finished: {} records read, {} created, {} failed in {} ms ({} records/s)",
+            source, report.getRead(), report.getCreated(), report.getFailed(),
+            report.getElapsedMillis(), Math.round(report.getRecordsPerSecond()));
+
+        return report;
+    }
+
+    private <T> MappingIterator<T> openRecords(InputStream input, String format, Class<T> type) throws IOException {
+        if ("csv".equalsIgnoreCase(format)) {
+            CsvSchema schema = CsvSchema.emptySchema().withHeader().withArrayElementSeparator(";");
+            return csvMapper.readerFor(type).with(schema).readValues(input);
+        }
+        if (format != null && !"json".equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("Unsupported import format: " + format);
+        }
+
+        // Token stream over a top-level JSON array; elements are bound one at a time
+        // (only a parser the reader opens itself gets the enclosing array unwrapped)
+        return jsonMapper.readerFor(type).readValues(input);
+    }
+
+    private <T> void writeChunk(List<T> chunk, List<Long> positions, Function<List<T>, BulkResult> writer,
+                                ImportReport report, long start) {
+        BulkResult result = writer.apply(chunk);
+
+        report.setChunks(report.getChunks() + 1);
+        report.setCreated(report.getCreated() + result.getCreated());
+        report.setFailed(report.getFailed() + result.getFailed());
+        for (BulkRowResult row : result.getRows()) {
+            if (!row.isSuccess()) {
+                addError(report, "Record " + positions.get(row.getIndex()) + ": " + row.getError());
+            }
+        }
+
+        log.info("Import {}: chunk {} written, {} records read, {} created, {} failed ({} records/s)",
+            report.getSource(), report.getChunks(), report.getRead(), report.getCreated(),
+            report.getFailed(), Math.round(throughput(report.getRead(), start)));
+    }
+
+    private void addError(ImportReport report, String error) {
+        if (report.getErrors().size() < maxErrors) {
+            report.getErrors().add(error);
+        }
+    }
+
+    private double throughput(long records, long start) {
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        return seconds > 0 ? records / seconds : 0;
+    }
+
+    /**
+     * Fill subjectId and studentIds from subject names and student NIMs,
+     * with one $in query per collection for the whole chunk
+     */
+    private List<ClassRoom> resolveClassReferences(List<ClassRoom> chunk) {
+        Set<String> subjectNames = new HashSet<>();
+        Set<String> nims = new HashSet<>();
+        for (ClassRoom classRoom : chunk) {
+            if (classRoom.getSubjectId() == null && classRoom.getSubjectName() != null) {
+                subjectNames.add(classRoom.getSubjectName());
+            }
+            if (classRoom.getStudentNims() != null) {
+                nims.addAll(classRoom.getStudentNims());
+            }
+        }
+
+        Map<String, String> subjectIdsByName = new HashMap<>();
+        if (!subjectNames.isEmpty()) {
+            for (Subject subject : subjectRepository.findByNameIn(subjectNames)) {
+                subjectIdsByName.putIfAbsent(subject.getName(), subject.getId());
+            }
+        }
+        Map<String, String> studentIdsByNim = new HashMap<>();
+        if (!nims.isEmpty()) {
+            for (Student student : studentRepository.findByNimIn(nims)) {
+                studentIdsByNim.put(student.getNim(), student.getId());
+            }
+        }
+
+        for (ClassRoom classRoom : chunk) {
+            if (classRoom.getSubjectId() == null) {
+                classRoom.setSubjectId(subjectIdsByName.get(classRoom.getSubjectName()));
+            }
+            if (classRoom.getStudentNims() != null && !classRoom.getStudentNims().isEmpty()) {
+                List<String> studentIds = new ArrayList<>();
+                for (String nim : classRoom.getStudentNims()) {
+                    String studentId = studentIdsByNim.get(nim);
+                    if (studentId != null) {
+                        studentIds.add(studentId);
+                    }
+                }
+                classRoom.setStudentIds(studentIds);
+            }
+        }
+
+        return chunk;
+    }
+}
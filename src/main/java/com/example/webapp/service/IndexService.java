@@ -0,0 +1,22 @@
+package com.example.webapp.service;
+
+import com.example.webapp.model.IndexStatus;
+
+import java.util.List;
+
+/**
+ * Service interface for the MongoDB indexes declared on the entities
+ */
+public interface IndexService {
+
+    /**
+     * Build every declared index that does not exist yet
+     * A failing index (e.g. duplicate keys under a unique index) is recorded and does not stop the others
+     */
+    void ensureIndexes();
+
+    /**
+     * Compare the declared indexes with the ones that exist, collection by collection
+     */
+    List<IndexStatus> getIndexReport();
+}
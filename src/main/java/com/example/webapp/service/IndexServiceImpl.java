@@ -0,0 +1,147 @@
+package com.example.webapp.service;
+
+import com.example.webapp.model.ClassRoom;
+import com.example.webapp.model.IndexStatus;
+import com.example.webapp.model.Student;
+import com.example.webapp.model.Subject;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service implementation for the declared indexes
+ * The @Indexed and @CompoundIndex annotations on the entities are the declaration; instead of
+ * Spring Data creating them while the mapping context starts (auto-index-creation), they are
+ * built here after startup, so a slow or failing build does not hold up or abort the application.
+ */
+@Slf4j
+@Service
+public class IndexServiceImpl implements IndexService {
+
+    private static final List<Class<?>> ENTITIES = List.of(Student.class, Subject.class, ClassRoom.class);
+
+    // Last build error by collection and index name
+    private final Map<String, String> failures = new ConcurrentHashMap<>();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoMappingContext mappingContext;
+
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private AsyncTaskExecutor taskExecutor;
+
+    @Value("${mongo.indexes.build-on-startup:true}")
+    private boolean buildOnStartup;
+
+    /**
+     * Build the indexes in the background once the application is up (after the data load)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexesOnStartup() {
+        if (buildOnStartup) {
+            taskExecutor.execute(this::ensureIndexes);
+        }
+    }
+
+    @Override
+    public void ensureIndexes() {
+        long start = System.currentTimeMillis();
+        int declared = 0;
+        for (Class<?> entity : ENTITIES) {
+            String collection = mappingContext.getRequiredPersistentEntity(entity).getCollection();
+            for (IndexDefinition index : declaredIndexes(entity)) {
+                declared++;
+                String name = index.getIndexOptions().getString("name");
+                try {
+                    // A no-op on the server when the index already exists as declared
+                    mongoTemplate.indexOps(collection).ensureIndex(index);
+                    failures.remove(collection + "." + name);
+                } catch (RuntimeException e) {
+                    failures.put(collection + "." + name, e.getMessage());
+                    log.warn("Could not build index {} on {}: {}", name, collection, e.getMessage());
+                }
+            }
+        }
+        log.info("Ensured {} declared indexes in {} ms, {} failed", declared,
+            System.currentTimeMillis() - start, failures.size());
+    }
+
+    @Override
+    public List<IndexStatus> getIndexReport() {
+        List<IndexStatus> report = new ArrayList<>();
+        for (Class<?> entity : ENTITIES) {
+            String collection = mappingContext.getRequiredPersistentEntity(entity).getCollection();
+
+            Map<String, IndexInfo> existing = new LinkedHashMap<>();
+            for (IndexInfo info : mongoTemplate.indexOps(collection).getIndexInfo()) {
+                existing.put(keysOf(info), info);
+            }
+
+            for (IndexDefinition index : declaredIndexes(entity)) {
+                String name = index.getIndexOptions().getString("name");
+                String keys = new Document(index.getIndexKeys()).toJson();
+                boolean unique = Boolean.TRUE.equals(index.getIndexOptions().get("unique"));
+                IndexInfo info = existing.remove(keys);
+
+                String status;
+                String error = failures.get(collection + "." + name);
+                if (info != null) {
+                    status = info.isUnique() == unique ? IndexStatus.PRESENT : IndexStatus.MISMATCH;
+                } else {
+                    status = error != null ? IndexStatus.FAILED : IndexStatus.MISSING;
+                }
+                report.add(new IndexStatus(collection, name, keys, unique, status, error));
+            }
+
+            existing.forEach((keys, info) -> {
+                if (!"_id_".equals(info.getName())) {
+                    report.add(new IndexStatus(collection, info.getName(), keys, info.isUnique(),
+                        IndexStatus.UNDECLARED, null));
+                }
+            });
+        }
+        return report;
+    }
+
+    private Iterable<? extends IndexDefinition> declaredIndexes(Class<?> entity) {
+        return IndexResolver.create(mappingContext).resolveIndexFor(entity);
+    }
+
+    /**
+     * Key pattern of an existing index, in the form the declarations use
+     */
+    private static String keysOf(IndexInfo info) {
+        Document keys = new Document();
+        for (IndexField field : info.getIndexFields()) {
+            if (field.getDirection() != null) {
+                keys.put(field.getKey(), field.getDirection() == Sort.Direction.ASC ? 1 : -1);
+            } else {
+                keys.put(field.getKey(), field.isGeo() ? "2d" : field.isHashed() ? "hashed" : "text");
+            }
+        }
+        return keys.toJson();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.webapp.service;
+
+import com.example.webapp.model.Versioned;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapperImpl;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JSON Merge Patch (RFC 7396) for the flat entity documents
+ * A member sets its field, a null member removes it; fields not in the patch are left alone.
+ */
+final class MergePatch {
+
+    private static final ObjectMapper jsonMapper = new ObjectMapper();
+
+    private MergePatch() {
+    }
+
+    /**
+     * Patch members converted to their field types, validating only the patched fields
+     * Throws IllegalArgumentException listing every member that is not patchable or not valid
+     */
+    static Map<String, Object> fieldValues(Class<?> type, Map<String, Object> patch, Set<String> patchable,
+                                           Set<String> required, Validator validator) {
+        if (patch == null || patch.isEmpty()) {
+            throw new IllegalArgumentException("Patch is empty");
+        }
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        List<String> errors = new ArrayList<>();
+        for (Map.Entry<String, Object> member : patch.entrySet()) {
+            String field = member.getKey();
+            if (!patchable.contains(field)) {
+                errors.add(field + ": cannot be patched");
+                continue;
+            }
+            if (member.getValue() == null && required.contains(field)) {
+                errors.add(field + ": cannot be removed");
+                continue;
+            }
+
+            PropertyDescriptor property = BeanUtils.getPropertyDescriptor(type, field);
+            Object value;
+            try {
+                value = jsonMapper.convertValue(member.getValue(),
+                    jsonMapper.constructType(property.getReadMethod().getGenericReturnType()));
+            } catch (IllegalArgumentException e) {
+                errors.add(field + ": invalid value");
+                continue;
+            }
+            if (value instanceof String text && text.isBlank() && required.contains(field)) {
+                errors.add(field + ": cannot be empty");
+                continue;
+            }
+
+            Set<? extends ConstraintViolation<?>> violations = validator.validateValue(type, field, value);
+            violations.forEach(v -> errors.add(field + ": " + v.getMessage()));
+            values.put(field, value);
+        }
+
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", errors.stream().sorted().toList()));
+        }
+        return values;
+    }
+
+    /**
+     * Copy of the entity as the patch left it, with the version the update gave it
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends Versioned> T applied(T before, Map<String, Object> values) {
+        T after = (T) BeanUtils.instantiateClass(before.getClass());
+        BeanUtils.copyProperties(before, after);
+        new BeanWrapperImpl(after).setPropertyValues(values);
+        after.setVersion(before.getVersion() == null ? 1L : before.getVersion() + 1);
+        return after;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.webapp.service;
+
+import com.example.webapp.model.CursorPage;
+import com.example.webapp.model.PageCursor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Helpers shared by the services that serve keyset-paginated listings
+ */
+final class Pagination {
+
+    private Pagination() {
+    }
+
+    /**
+     * Requested page size, or the default, kept between 1 and max
+     */
+    static int pageSize(Integer requested, int defaultSize, int maxSize) {
+        return requested == null ? defaultSize : Math.max(1, Math.min(requested, maxSize));
+    }
+
+    /**
+     * Decode the cursor and check it belongs to the same sort field
+     */
+    static PageCursor decodeCursor(String cursor, String sortField) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        PageCursor after = PageCursor.decode(cursor);
+        if (!sortField.equals(after.getSortField())) {
+            throw new IllegalArgumentException("Cursor does not match sort field: " + sortField);
+        }
+        return after;
+    }
+
+    /**
+     * Build a page from rows fetched with limit size + 1
+     * The extra row only tells whether another page follows
+     */
+    static <T> CursorPage<T> toPage(List<T> rows, int size, Function<T, PageCursor> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPage<>(items, cursorOf.apply(items.get(size - 1)).encode());
+    }
+}
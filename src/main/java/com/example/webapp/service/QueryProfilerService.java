@@ -0,0 +1,23 @@
+package com.example.webapp.service;
+
+import com.example.webapp.model.QueryProfile;
+import com.mongodb.event.CommandListener;
+
+import java.util.List;
+
+/**
+ * Service interface for profiling MongoDB queries
+ * Registered as a driver CommandListener, it times every query by shape and explains each new shape.
+ */
+public interface QueryProfilerService extends CommandListener {
+
+    /**
+     * Get the top query shapes, ordered by total, mean or max time, count or slowCount
+     */
+    List<QueryProfile> getTopQueries(int limit, String sort);
+
+    /**
+     * Drop all collected timings and plans; shapes are explained again when next seen
+     */
+    void reset();
+}
@@ -0,0 +1,311 @@
+package com.example.webapp.service;
+
+import com.example.webapp.model.QueryProfile;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoClient;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service implementation for profiling MongoDB queries
+ * Timings are kept per query shape, so repeated calls with different values add up to one entry.
+ * Each new shape is explained once (queryPlanner only, the query is not run) on a background thread.
+ */
+@Slf4j
+@Service
+public class QueryProfilerServiceImpl implements QueryProfilerService {
+
+    private static final Set<String> PROFILED_COMMANDS = Set.of(
+        "find", "aggregate", "count", "distinct", "findAndModify", "update", "delete", "insert", "getMore");
+    private static final Set<String> EXPLAINED_COMMANDS = Set.of(
+        "find", "aggregate", "count", "distinct", "findAndModify", "update", "delete");
+    // Fields the driver adds to every command; explain rejects some of them
+    private static final Set<String> DRIVER_FIELDS = Set.of(
+        "$db", "lsid", "$clusterTime", "txnNumber", "$readPreference", "readConcern", "writeConcern",
+        "autocommit", "startTransaction", "apiVersion", "apiStrict", "apiDeprecationErrors");
+
+    // Shapes by command, collection and normalized query; bounded by mongo.profiler.max-shapes
+    private final Map<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    // Shapes of commands in flight, by driver request id
+    private final Map<Integer, ShapeStats> inFlight = new ConcurrentHashMap<>();
+
+    // Lazy: the client is built with this listener registered
+    @Lazy
+    @Autowired
+    private MongoClient mongoClient;
+
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private AsyncTaskExecutor taskExecutor;
+
+    @Value("${mongo.profiler.slow-ms:100}")
+    private long slowMillis;
+
+    @Value("${mongo.profiler.explain:true}")
+    private boolean explainEnabled;
+
+    @Value("${mongo.profiler.max-shapes:1000}")
+    private int maxShapes;
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String commandName = event.getCommandName();
+        if (!PROFILED_COMMANDS.contains(commandName)) {
+            return;
+        }
+
+        BsonDocument command = event.getCommand();
+        BsonValue target = command.get("getMore".equals(commandName) ? "collection" : commandName);
+        String collection = target != null && target.isString() ? target.asString().getValue() : "";
+        String shape = shapeOf(commandName, command);
+        String key = commandName + " " + collection + " " + shape;
+
+        ShapeStats stats = shapes.get(key);
+        if (stats == null) {
+            if (shapes.size() >= maxShapes) {
+                return;
+            }
+            ShapeStats created = new ShapeStats(commandName, collection, shape);
+            stats = shapes.putIfAbsent(key, created);
+            if (stats == null) {
+                stats = created;
+                if (explainEnabled && EXPLAINED_COMMANDS.contains(commandName)) {
+                    BsonDocument query = explainable(command);
+                    String database = event.getDatabaseName();
+                    ShapeStats explained = created;
+                    taskExecutor.execute(() -> explain(explained, database, query));
+                }
+            }
+        }
+        inFlight.put(event.getRequestId(), stats);
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        ShapeStats stats = inFlight.remove(event.getRequestId());
+        if (stats != null) {
+            record(stats, event.getElapsedTime(TimeUnit.NANOSECONDS), false);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        ShapeStats stats = inFlight.remove(event.getRequestId());
+        if (stats != null) {
+            record(stats, event.getElapsedTime(TimeUnit.NANOSECONDS), true);
+        }
+    }
+
+    @Override
+    public List<QueryProfile> getTopQueries(int limit, String sort) {
+        Comparator<QueryProfile> order = switch (sort) {
+            case "total" -> Comparator.comparingDouble(QueryProfile::getTotalMillis);
+            case "mean" -> Comparator.comparingDouble(QueryProfile::getMeanMillis);
+            case "max" -> Comparator.comparingDouble(QueryProfile::getMaxMillis);
+            case "count" -> Comparator.comparingLong(QueryProfile::getCount);
+            case "slowCount" -> Comparator.comparingLong(QueryProfile::getSlowCount);
+            default -> throw new IllegalArgumentException("Unknown sort: " + sort);
+        };
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return shapes.values().stream()
+            .map(ShapeStats::toProfile)
+            .sorted(order.reversed())
+            .limit(limit)
+            .toList();
+    }
+
+    @Override
+    public void reset() {
+        shapes.clear();
+        log.info("Query profiler reset");
+    }
+
+    private void record(ShapeStats stats, long elapsedNanos, boolean failed) {
+        stats.count.increment();
+        stats.totalNanos.add(elapsedNanos);
+        stats.maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+        if (failed) {
+            stats.failures.increment();
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        if (millis >= slowMillis) {
+            stats.slowCount.increment();
+            log.warn("Slow MongoDB {} on {} took {} ms: {}", stats.command, stats.collection, millis, stats.shape);
+        }
+    }
+
+    private void explain(ShapeStats stats, String database, BsonDocument query) {
+        try {
+            Document result = mongoClient.getDatabase(database).runCommand(
+                new BsonDocument("explain", query).append("verbosity", new BsonString("queryPlanner")));
+            Set<String> stages = new LinkedHashSet<>();
+            collectStages(result, stages);
+            stats.plan = String.join(" > ", stages);
+            if (stages.contains("COLLSCAN")) {
+                stats.collectionScan = true;
+                stats.explain = result;
+                log.warn("Collection scan by {} on {}: {}", stats.command, stats.collection, stats.shape);
+            }
+        } catch (MongoCommandException e) {
+            stats.plan = "explain failed: " + e.getErrorMessage();
+        } catch (RuntimeException e) {
+            stats.plan = "explain failed: " + e.getMessage();
+            log.debug("Explain failed for {} on {}", stats.command, stats.collection, e);
+        }
+    }
+
+    /**
+     * Copy of the command to explain: the event's document is only valid during the event,
+     * and explain takes a single update or delete statement
+     */
+    private static BsonDocument explainable(BsonDocument command) {
+        BsonDocument query = new BsonDocument();
+        command.forEach((field, value) -> {
+            if (DRIVER_FIELDS.contains(field)) {
+                return;
+            }
+            if ((field.equals("updates") || field.equals("deletes")) && value.isArray()
+                    && !value.asArray().isEmpty()) {
+                query.put(field, new BsonArray(List.of(copy(value.asArray().get(0)))));
+            } else {
+                query.put(field, copy(value));
+            }
+        });
+        return query;
+    }
+
+    private static BsonValue copy(BsonValue value) {
+        if (value.isDocument()) {
+            return value.asDocument().clone();
+        }
+        return value.isArray() ? value.asArray().clone() : value;
+    }
+
+    /**
+     * Stage names of the winning plan, outermost first; rejected plans are skipped
+     */
+    private static void collectStages(Object value, Set<String> stages) {
+        if (value instanceof Map<?, ?> map) {
+            map.forEach((key, child) -> {
+                if ("stage".equals(key) && child instanceof String stage) {
+                    stages.add(stage);
+                } else if (!"rejectedPlans".equals(key)) {
+                    collectStages(child, stages);
+                }
+            });
+        } else if (value instanceof List<?> list) {
+            list.forEach(child -> collectStages(child, stages));
+        }
+    }
+
+    /**
+     * The parts of a command that decide its plan, with literal values replaced by "?"
+     */
+    private static String shapeOf(String commandName, BsonDocument command) {
+        BsonDocument shape = new BsonDocument();
+        switch (commandName) {
+            case "find", "count", "distinct", "findAndModify" -> {
+                copyNormalized(command, shape, commandName.equals("find") ? "filter" : "query");
+                for (String field : List.of("key", "sort")) {
+                    if (command.containsKey(field)) {
+                        shape.put(field, command.get(field));
+                    }
+                }
+            }
+            case "aggregate" -> copyNormalized(command, shape, "pipeline");
+            case "update", "delete" -> {
+                BsonValue statements = command.get(commandName.equals("update") ? "updates" : "deletes");
+                if (statements != null && statements.isArray() && !statements.asArray().isEmpty()
+                        && statements.asArray().get(0).isDocument()) {
+                    copyNormalized(statements.asArray().get(0).asDocument(), shape, "q");
+                }
+            }
+            default -> {
+                // insert and getMore have no query of their own
+            }
+        }
+        return shape.toJson();
+    }
+
+    private static void copyNormalized(BsonDocument from, BsonDocument to, String field) {
+        BsonValue value = from.get(field);
+        if (value != null) {
+            to.put(field, normalized(value));
+        }
+    }
+
+    private static BsonValue normalized(BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument document = new BsonDocument();
+            value.asDocument().forEach((key, child) ->
+                document.put(key, key.equals("$sort") ? child : normalized(child)));
+            return document;
+        }
+        if (value.isArray() && value.asArray().stream().anyMatch(BsonValue::isDocument)) {
+            // $and/$or clauses and pipeline stages keep their structure
+            BsonArray array = new BsonArray();
+            value.asArray().forEach(child -> array.add(normalized(child)));
+            return array;
+        }
+        if (value.isString() && value.asString().getValue().startsWith("$")) {
+            // Field paths in pipeline expressions
+            return value;
+        }
+        return new BsonString("?");
+    }
+
+    private static final class ShapeStats {
+
+        private final String command;
+        private final String collection;
+        private final String shape;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder slowCount = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private volatile String plan;
+        private volatile boolean collectionScan;
+        private volatile Document explain;
+
+        ShapeStats(String command, String collection, String shape) {
+            this.command = command;
+            this.collection = collection;
+            this.shape = shape;
+        }
+
+        QueryProfile toProfile() {
+            long executions = count.sum();
+            double totalMillis = totalNanos.sum() / 1e6;
+            return new QueryProfile(command, collection, shape, executions, failures.sum(), slowCount.sum(),
+                totalMillis, executions == 0 ? 0 : totalMillis / executions, maxNanos.get() / 1e6,
+                plan, collectionScan, explain);
+        }
+    }
+}
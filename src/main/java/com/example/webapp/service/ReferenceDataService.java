@@ -0,0 +1,19 @@
+package com.example.webapp.service;
+
+import com.example.webapp.model.ReferenceData;
+
+/**
+ * Service interface for the reference data snapshot (majors, subjects, semesters)
+ */
+public interface ReferenceDataService {
+
+    /**
+     * Get the current snapshot, rebuilding it only after a change
+     */
+    ReferenceData getReferenceData();
+
+    /**
+     * Mark the snapshot stale after a subject was created, updated or deleted
+     */
+    void subjectsChanged();
+}
@@ -0,0 +1,88 @@
+package com.example.webapp.service;
+
+import com.example.webapp.model.ReferenceData;
+import com.example.webapp.model.SelectOption;
+import com.example.webapp.model.SubjectFilter;
+import com.example.webapp.repository.SubjectRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service implementation for the reference data snapshot
+ * The snapshot is built on first use after a change and shared by all readers
+ * until the next change, so repeated dropdown loads cost no database work.
+ */
+@Slf4j
+@Service
+public class ReferenceDataServiceImpl implements ReferenceDataService {
+
+    // Part of every version, so ETags from before a restart never match
+    private final String instance = Long.toString(System.currentTimeMillis(), 36);
+
+    // Generation and snapshot are swapped together, so a change can never be overwritten by an older build
+    private final AtomicReference<Cached> cached = new AtomicReference<>(new Cached(1, null));
+
+    // Not synchronized: the rebuild queries MongoDB and would pin a virtual thread's carrier
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Value("${major.options}")
+    private String majorOptions;
+
+    @Value("${semester.options:Ganjil,Genap}")
+    private String semesterOptions;
+
+    @Override
+    public ReferenceData getReferenceData() {
+        ReferenceData current = cached.get().snapshot;
+        return current != null ? current : rebuild();
+    }
+
+    @Override
+    public void subjectsChanged() {
+        cached.updateAndGet(current -> new Cached(current.generation + 1, null));
+    }
+
+    private ReferenceData rebuild() {
+        rebuildLock.lock();
+        try {
+            Cached building = cached.get();
+            if (building.snapshot != null) {
+                return building.snapshot;
+            }
+
+            List<SelectOption> subjects = List.copyOf(subjectRepository.findOptions(new SubjectFilter()));
+            ReferenceData built = new ReferenceData(instance + "." + building.generation,
+                List.of(majorOptions.split(",")), subjects, List.of(semesterOptions.split(",")));
+
+            // A change during the build makes this snapshot stale: serve it once, keep it out of the cache
+            if (cached.compareAndSet(building, new Cached(building.generation, built))) {
+                log.debug("Reference data rebuilt (version {}, {} subjects)", built.getVersion(), subjects.size());
+            }
+            return built;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Change generation with the snapshot built for it (null until rebuilt)
+     */
+    private static final class Cached {
+        private final long generation;
+        private final ReferenceData snapshot;
+
+        private Cached(long generation, ReferenceData snapshot) {
+            this.generation = generation;
+            this.snapshot = snapshot;
+        }
+    }
+}
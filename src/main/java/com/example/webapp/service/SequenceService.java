@@ -0,0 +1,29 @@
+package com.example.webapp.service;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Service interface for sequence number allocation
+ * Hands out unique, increasing numbers per key for generated codes
+ */
+public interface SequenceService {
+
+    /**
+     * Allocate the next value for a key
+     * The seed returns the highest value already in use and is consulted
+     * only the first time this instance sees the key
+     */
+    long nextValue(String key, LongSupplier seed);
+
+    /**
+     * Allocate count consecutive values for a key in one counter round trip
+     * Returns the first value of the range
+     */
+    long nextRange(String key, int count, LongSupplier seed);
+
+    /**
+     * Make sure the key never hands out the given value or anything below it
+     * Also marks the key as seeded, so nextValue will not consult its seed
+     */
+    void advanceTo(String key, long value);
+}
@@ -0,0 +1,127 @@
+package com.example.webapp.service;
+
+import com.example.webapp.model.SequenceCounter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Service implementation for sequence number allocation
+ * Reserves blocks of values from a counter document with a single $inc,
+ * then hands them out from memory so most allocations never touch MongoDB
+ */
+@Service
+public class SequenceServiceImpl implements SequenceService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${sequence.block-size:20}")
+    private int blockSize;
+
+    private final ConcurrentMap<String, SequenceBlock> blocks = new ConcurrentHashMap<>();
+
+    @Override
+    public long nextValue(String key, LongSupplier seed) {
+        SequenceBlock block = blocks.computeIfAbsent(key, k -> new SequenceBlock());
+
+        block.lock.lock();
+        try {
+            seedOnce(block, key, seed);
+            if (block.next > block.last) {
+                long last = reserve(key, blockSize);
+                block.next = last - blockSize + 1;
+                block.last = last;
+            }
+            return block.next++;
+        } finally {
+            block.lock.unlock();
+        }
+    }
+
+    @Override
+    public long nextRange(String key, int count, LongSupplier seed) {
+        SequenceBlock block = blocks.computeIfAbsent(key, k -> new SequenceBlock());
+
+        block.lock.lock();
+        try {
+            seedOnce(block, key, seed);
+        } finally {
+            block.lock.unlock();
+        }
+
+        // Taken straight from the counter, so the range is contiguous
+        return reserve(key, count) - count + 1;
+    }
+
+    @Override
+    public void advanceTo(String key, long value) {
+        raiseCounter(key, value);
+
+        SequenceBlock block = blocks.computeIfAbsent(key, k -> new SequenceBlock());
+        block.lock.lock();
+        try {
+            // Skip the part of the local block that is now taken
+            if (block.next <= value) {
+                block.next = value + 1;
+            }
+            // The counter now covers existing data, so nextValue need not run the seed
+            block.initialized = true;
+        } finally {
+            block.lock.unlock();
+        }
+    }
+
+    /**
+     * On first use in this instance, make sure the counter covers existing data
+     * Called with the block's lock held; the I/O stays out of computeIfAbsent, which would
+     * block other keys in the same map bin. A failed seed is retried on the next call.
+     */
+    private void seedOnce(SequenceBlock block, String key, LongSupplier seed) {
+        if (!block.initialized) {
+            raiseCounter(key, seed.getAsLong());
+            block.initialized = true;
+        }
+    }
+
+    /**
+     * Atomically reserve the next count values and return the last one
+     */
+    private long reserve(String key, int count) {
+        Query query = Query.query(Criteria.where("_id").is(key));
+        Update update = new Update().inc("value", count);
+        SequenceCounter counter = mongoTemplate.findAndModify(query, update,
+            FindAndModifyOptions.options().returnNew(true).upsert(true), SequenceCounter.class);
+        return counter.getValue();
+    }
+
+    /**
+     * Raise the counter to at least the given value, never lowering it
+     */
+    private void raiseCounter(String key, long value) {
+        Query query = Query.query(Criteria.where("_id").is(key));
+        mongoTemplate.upsert(query, new Update().max("value", value), SequenceCounter.class);
+    }
+
+    /**
+     * Range of values reserved by this instance, handed out from next to last
+     * Guarded by a ReentrantLock rather than synchronized: a refill waits on MongoDB,
+     * and a virtual thread blocking inside synchronized would pin its carrier thread.
+     */
+    private static class SequenceBlock {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long next = 1;
+        private long last = 0;
+        private boolean initialized;  // Counter seeded from existing data
+    }
+}
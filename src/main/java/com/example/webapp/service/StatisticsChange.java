@@ -0,0 +1,28 @@
+package com.example.webapp.service;
+
+import com.example.webapp.model.Student;
+import com.example.webapp.model.Subject;
+
+/**
+ * Changes made by one write (or one bulk write), applied to the statistics together on close
+ * Open it before the database write and close it after, so a reconcile can tell whether the
+ * write overlapped its count
+ */
+public interface StatisticsChange extends AutoCloseable {
+
+    /**
+     * Record a student change (before is null on create, after is null on delete)
+     */
+    void studentChanged(Student before, Student after);
+
+    /**
+     * Record a subject change (before is null on create, after is null on delete)
+     */
+    void subjectChanged(Subject before, Subject after);
+
+    /**
+     * Apply the recorded changes, republish the snapshot once and let a waiting reconcile go on
+     */
+    @Override
+    void close();
+}
@@ -1,6 +1,11 @@
 package com.example.webapp.service;
 
+import com.example.webapp.model.BulkResult;
+import com.example.webapp.model.ClassSummary;
+import com.example.webapp.model.CursorPage;
+import com.example.webapp.model.SelectOption;
 import com.example.webapp.model.Student;
+import com.example.webapp.model.StudentFilter;
 
 import java.util.List;
 import java.util.Map;
@@ -17,23 +22,53 @@ public interface StudentService {
      */
     List<Student> getAllStudents();
 
+    /**
+     * Get one page of students matching the filter (keyset pagination)
+     */
+    CursorPage<Student> getStudentPage(StudentFilter filter);
+
+    /**
+     * Get id, NIM and name of the students matching the filter and a NIM or name prefix
+     * (for selectors), at most filter.size (capped by pagination.max-size)
+     */
+    List<SelectOption> getStudentOptions(StudentFilter filter, String search);
+
     /**
      * Get student by ID
      */
     Optional<Student> getStudentById(String id);
 
+    /**
+     * Get the classes a student is enrolled in
+     */
+    List<ClassSummary> getStudentClasses(String id);
+
     /**
      * Create new student
      */
     Student createStudent(Student student);
 
+    /**
+     * Create many students at once: one validation pass, NIMs allocated in
+     * ranges, unordered bulk insert, and a result for every row
+     */
+    BulkResult bulkCreateStudents(List<Student> students);
+
     /**
      * Update existing student
+     * The NIM stays as stored; a student with another NIM than the stored one is refused
+     * with IllegalStateException
      */
     Student updateStudent(String id, Student student);
 
     /**
-     * Delete student by ID
+     * Update only the fields in a JSON Merge Patch (null removes a field), optionally only
+     * if the stored version matches; empty when the student does not exist
+     */
+    Optional<Student> patchStudent(String id, Map<String, Object> patch, Long expectedVersion);
+
+    /**
+     * Delete student by ID and remove them from every class
      */
     void deleteStudent(String id);
 
@@ -51,4 +86,9 @@ public interface StudentService {
      * Count total students
      */
     long countStudents();
+
+    /**
+     * Bring NIM sequence counters in line with the stored students
+     */
+    void syncNimSequences();
 }
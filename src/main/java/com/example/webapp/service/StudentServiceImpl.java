@@ -1,49 +1,212 @@
 package com.example.webapp.service;
 
+import com.example.webapp.model.BulkResult;
+import com.example.webapp.model.BulkRowResult;
+import com.example.webapp.model.ClassSummary;
+import com.example.webapp.model.CursorPage;
+import com.example.webapp.model.PageCursor;
+import com.example.webapp.model.SelectOption;
 import com.example.webapp.model.Student;
-import com.example.webapp.model.StudentStatus;
-import com.example.webapp.model.Subject;
+import com.example.webapp.model.StudentFilter;
+import com.example.webapp.repository.ClassRoomRepository;
 import com.example.webapp.repository.StudentRepository;
-import com.example.webapp.repository.SubjectRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Service implementation for Student operations
  * Contains all business logic for student management
  */
+@Slf4j
 @Service
+@Timed(value = "webapp.service", histogram = true)
 public class StudentServiceImpl implements StudentService {
 
+    private static final String NIM_SEQUENCE_PREFIX = "nim:";
+    private static final Set<String> SORT_FIELDS = Set.of("nim", "name", "batch");
+    // NIM is assigned at creation and keeps its sequence reservation, so it is not patchable
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("name", "email", "major", "batch", "status");
+    private static final Set<String> REQUIRED_FIELDS = Set.of("name", "email", "major", "batch");
+
     @Autowired
     private StudentRepository studentRepository;
 
     @Autowired
-    private SubjectRepository subjectRepository;
+    private ClassRoomRepository classRoomRepository;
+
+    @Autowired
+    private SequenceService sequenceService;
 
-    @Value("${major.options}")
-    private String majorOptions;
+    @Autowired
+    private StudentStatisticsService studentStatisticsService;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${pagination.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${pagination.max-size:100}")
+    private int maxPageSize;
 
     @Override
     public List<Student> getAllStudents() {
         return studentRepository.findAll();
     }
 
+    @Override
+    public CursorPage<Student> getStudentPage(StudentFilter filter) {
+        if (filter.getSort() == null || !SORT_FIELDS.contains(filter.getSort())) {
+            throw new IllegalArgumentException("Unsupported sort field: " + filter.getSort());
+        }
+
+        PageCursor after = Pagination.decodeCursor(filter.getCursor(), filter.getSort());
+        int size = Pagination.pageSize(filter.getSize(), defaultPageSize, maxPageSize);
+
+        // Fetch one extra row to know whether another page follows
+        List<Student> students = studentRepository.findPage(filter, after, size + 1);
+        return Pagination.toPage(students, size,
+            last -> new PageCursor(filter.getSort(), last.getId(), sortValue(last, filter.getSort())));
+    }
+
+    @Override
+    public List<SelectOption> getStudentOptions(StudentFilter filter, String search) {
+        int size = Pagination.pageSize(filter.getSize(), defaultPageSize, maxPageSize);
+        return studentRepository.findOptions(filter, search, size);
+    }
+
+    private String sortValue(Student student, String sortField) {
+        switch (sortField) {
+            case "name":
+                return student.getName();
+            case "batch":
+                return student.getBatch() == null ? null : String.valueOf(student.getBatch());
+            default:
+                return student.getNim();
+        }
+    }
+
     @Override
     public Optional<Student> getStudentById(String id) {
         return studentRepository.findById(id);
     }
 
+    @Override
+    public List<ClassSummary> getStudentClasses(String id) {
+        if (studentRepository.findById(id).isEmpty()) {
+            throw new IllegalArgumentException("Student not found with id: " + id);
+        }
+        return classRoomRepository.findByStudentId(id);
+    }
+
     @Override
     public Student createStudent(Student student) {
         // Business logic: validate student data before saving
+        validateStudent(student);
+
+        // Auto-generate NIM if not provided
+        if (student.getNim() == null || student.getNim().trim().isEmpty()) {
+            student.setNim(generateNim(student.getMajor(), student.getBatch()));
+        } else {
+            // Keep the sequence ahead of NIMs supplied by the caller
+            reserveNim(student.getNim());
+        }
+
+        // Always an insert; the version starts at 0
+        student.setVersion(null);
+        try (StatisticsChange change = studentStatisticsService.beginChange()) {
+            Student saved = studentRepository.save(student);
+            change.studentChanged(null, saved);
+            return saved;
+        }
+    }
+
+    @Override
+    public BulkResult bulkCreateStudents(List<Student> students) {
+        BulkRowResult[] results = new BulkRowResult[students.size()];
+        List<Integer> validIndexes = new ArrayList<>();
+        Map<String, List<Student>> needNim = new LinkedHashMap<>();
+        Map<String, Long> suppliedMax = new HashMap<>();
+
+        // Pass 1: validate every row, group the rows that need a NIM by prefix
+        for (int i = 0; i < students.size(); i++) {
+            Student student = students.get(i);
+            String error = validationError(student);
+            if (error != null) {
+                results[i] = BulkRowResult.failed(i, error);
+                continue;
+            }
+            validIndexes.add(i);
+
+            if (student.getNim() == null || student.getNim().trim().isEmpty()) {
+                needNim.computeIfAbsent(nimPrefix(student.getMajor(), student.getBatch()), k -> new ArrayList<>())
+                    .add(student);
+            } else if (parseNimSequence(student.getNim()) > 0) {
+                suppliedMax.merge(student.getNim().substring(0, 6), parseNimSequence(student.getNim()), Math::max);
+            }
+        }
+
+        // Pass 2: one counter round trip per prefix
+        suppliedMax.forEach((prefix, max) -> sequenceService.advanceTo(NIM_SEQUENCE_PREFIX + prefix, max));
+        needNim.forEach((prefix, group) -> {
+            long first = sequenceService.nextRange(NIM_SEQUENCE_PREFIX + prefix, group.size(),
+                () -> findMaxNimSequence(prefix));
+            for (int n = 0; n < group.size(); n++) {
+                group.get(n).setNim(String.format("%s%04d", prefix, first + n));
+            }
+        });
+
+        // Pass 3: unordered bulk insert, ids assigned up front so results can report them
+        List<Student> valid = new ArrayList<>();
+        for (int index : validIndexes) {
+            Student student = students.get(index);
+            student.setId(new ObjectId().toHexString());
+            student.setVersion(0L);
+            valid.add(student);
+        }
+        // The inserted rows reach the statistics as one change
+        try (StatisticsChange change = studentStatisticsService.beginChange()) {
+            Map<Integer, String> errors = studentRepository.bulkInsert(valid);
+
+            for (int v = 0; v < valid.size(); v++) {
+                int index = validIndexes.get(v);
+                Student student = valid.get(v);
+                if (errors.containsKey(v)) {
+                    results[index] = BulkRowResult.failed(index, errors.get(v));
+                } else {
+                    results[index] = BulkRowResult.created(index, student.getId(), student.getNim());
+                    change.studentChanged(null, student);
+                }
+            }
+        }
+
+        return BulkResult.of(Arrays.asList(results));
+    }
+
+    /**
+     * Business validation shared by single and bulk create
+     */
+    private void validateStudent(Student student) {
         if (student.getName() == null || student.getName().trim().isEmpty()) {
             throw new IllegalArgumentException("Student name cannot be empty");
         }
@@ -53,58 +216,124 @@ public class StudentServiceImpl implements StudentService {
         if (student.getBatch() == null) {
             throw new IllegalArgumentException("Student batch cannot be empty");
         }
+    }
 
-        // Auto-generate NIM if not provided
-        if (student.getNim() == null || student.getNim().trim().isEmpty()) {
-            student.setNim(generateNim(student.getMajor(), student.getBatch()));
+    /**
+     * Bean validation plus business validation for one bulk row
+     * Returns null when the row is valid
+     */
+    private String validationError(Student student) {
+        if (student == null) {
+            return "Row is empty";
+        }
+        Set<ConstraintViolation<Student>> violations = validator.validate(student);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+        }
+        try {
+            validateStudent(student);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
         }
-
-        return studentRepository.save(student);
     }
 
     /**
      * Generate NIM with format: AABBBBCCCC
      * AA = major code (10=SI, 11=TI)
      * BBBB = batch year
-     * CCCC = sequence number
+     * CCCC = sequence number, allocated per major and batch by SequenceService
      */
     private String generateNim(String major, Integer batch) {
+        String prefix = nimPrefix(major, batch);
+        long sequence = sequenceService.nextValue(NIM_SEQUENCE_PREFIX + prefix,
+            () -> findMaxNimSequence(prefix));
+
+        return String.format("%s%04d", prefix, sequence);
+    }
+
+    private String nimPrefix(String major, Integer batch) {
         // Determine major code
         String majorCode = "Sistem Informasi".equals(major) ? "10" : "11";
+        return majorCode + batch;
+    }
 
-        // Find the highest sequence number for this major and batch
-        List<Student> existingStudents = studentRepository.findAll();
-        int maxSequence = 0;
-
-        String prefix = majorCode + batch;
-        for (Student s : existingStudents) {
-            if (s.getNim() != null && s.getNim().startsWith(prefix)) {
-                try {
-                    int sequence = Integer.parseInt(s.getNim().substring(6));
-                    if (sequence > maxSequence) {
-                        maxSequence = sequence;
-                    }
-                } catch (Exception e) {
-                    // Skip invalid NIM format
-                }
-            }
+    /**
+     * Find the highest sequence number already used for a NIM prefix
+     */
+    private long findMaxNimSequence(String prefix) {
+        // Prefixes are digits only, so they need no regex escaping
+        return studentRepository.findMaxNimSequence("^" + prefix + "[0-9]{4,}$").orElse(0L);
+    }
+
+    /**
+     * Advance the NIM sequence past a NIM that was provided explicitly
+     */
+    private void reserveNim(String nim) {
+        long sequence = parseNimSequence(nim);
+        if (sequence > 0) {
+            sequenceService.advanceTo(NIM_SEQUENCE_PREFIX + nim.substring(0, 6), sequence);
         }
+    }
 
-        // Generate new NIM with next sequence number
-        int newSequence = maxSequence + 1;
-        return String.format("%s%04d", prefix, newSequence);
+    private long parseNimSequence(String nim) {
+        try {
+            return Long.parseLong(nim.substring(6));
+        } catch (Exception e) {
+            // Skip invalid NIM format
+            return 0L;
+        }
     }
 
     @Override
     public Student updateStudent(String id, Student student) {
-        // Business logic: check if student exists before updating
-        Optional<Student> existingStudent = studentRepository.findById(id);
-        if (existingStudent.isEmpty()) {
-            throw new IllegalArgumentException("Student not found with id: " + id);
-        }
+        // Without an explicit version the client gets last-write-wins against the current revision
+        Long expectedVersion = student.getVersion();
 
         student.setId(id);
-        return studentRepository.save(student);
+        try (StatisticsChange change = studentStatisticsService.beginChange()) {
+            // One update; NIM is immutable (as in PATCH): a body without one keeps the stored NIM,
+            // a body with another one is refused
+            Student previous = studentRepository.replaceIfVersion(student, expectedVersion);
+            if (previous == null) {
+                // Only id and NIM, read after the miss to tell the reasons apart
+                Optional<Student> stored = studentRepository.findByIdIn(List.of(id)).stream().findFirst();
+                if (stored.isPresent() && student.getNim() != null && !student.getNim().equals(stored.get().getNim())) {
+                    throw new IllegalStateException("NIM of student " + id + " cannot be changed");
+                }
+                if (stored.isPresent() && expectedVersion != null) {
+                    throw new OptimisticLockingFailureException("Student " + id + " was modified by another request");
+                }
+                throw new IllegalArgumentException("Student not found with id: " + id);
+            }
+
+            student.setNim(previous.getNim());
+            student.setVersion(previous.getVersion() == null ? 1L : previous.getVersion() + 1);
+            change.studentChanged(previous, student);
+            return student;
+        }
+    }
+
+    @Override
+    public Optional<Student> patchStudent(String id, Map<String, Object> patch, Long expectedVersion) {
+        Map<String, Object> fields = MergePatch.fieldValues(Student.class, patch, PATCHABLE_FIELDS, REQUIRED_FIELDS, validator);
+
+        try (StatisticsChange change = studentStatisticsService.beginChange()) {
+            Student previous = studentRepository.patchIfVersion(id, fields, expectedVersion);
+            if (previous == null) {
+                if (expectedVersion != null && studentRepository.existsById(id)) {
+                    throw new OptimisticLockingFailureException("Student " + id + " was modified by another request");
+                }
+                return Optional.empty();
+            }
+
+            Student patched = MergePatch.applied(previous, fields);
+            change.studentChanged(previous, patched);
+            return Optional.of(patched);
+        }
     }
 
     @Override
@@ -115,69 +344,38 @@ public class StudentServiceImpl implements StudentService {
             throw new IllegalArgumentException("Student not found with id: " + id);
         }
 
-        studentRepository.deleteById(id);
+        try (StatisticsChange change = studentStatisticsService.beginChange()) {
+            studentRepository.deleteById(id);
+            change.studentChanged(student.get(), null);
+        }
+
+        // Drop the student from all classes at once so no dangling IDs remain
+        long classes = classRoomRepository.removeStudentFromAll(id);
+        if (classes > 0) {
+            log.info("Removed deleted student {} from {} classes", id, classes);
+        }
     }
 
     @Override
     public List<String> getMajorOptions() {
-        return Arrays.asList(majorOptions.split(","));
+        // Parsed once into the shared reference data snapshot
+        return referenceDataService.getReferenceData().getMajors();
     }
 
     @Override
     public Map<String, Object> getStatistics() {
-        List<Student> allStudents = studentRepository.findAll();
-        List<Subject> allSubjects = subjectRepository.findAll();
-
-        Map<String, Object> stats = new HashMap<>();
-
-        // Count students by major
-        long siTotal = allStudents.stream()
-            .filter(s -> "Sistem Informasi".equals(s.getMajor()))
-            .count();
-        long tiTotal = allStudents.stream()
-            .filter(s -> "Teknologi Informasi".equals(s.getMajor()))
-            .count();
-
-        // Count active students by major
-        long siActive = allStudents.stream()
-            .filter(s -> "Sistem Informasi".equals(s.getMajor()) && StudentStatus.ACTIVE.equals(s.getStatus()))
-            .count();
-        long tiActive = allStudents.stream()
-            .filter(s -> "Teknologi Informasi".equals(s.getMajor()) && StudentStatus.ACTIVE.equals(s.getStatus()))
-            .count();
-
-        // Count not active students by major
-        long siNotActive = allStudents.stream()
-            .filter(s -> "Sistem Informasi".equals(s.getMajor()) && StudentStatus.NOT_ACTIVE.equals(s.getStatus()))
-            .count();
-        long tiNotActive = allStudents.stream()
-            .filter(s -> "Teknologi Informasi".equals(s.getMajor()) && StudentStatus.NOT_ACTIVE.equals(s.getStatus()))
-            .count();
-
-        // Count subjects by major
-        long siSubjects = allSubjects.stream()
-            .filter(s -> "Sistem Informasi".equals(s.getMajor()))
-            .count();
-        long tiSubjects = allSubjects.stream()
-            .filter(s -> "Teknologi Informasi".equals(s.getMajor()))
-            .count();
-
-        stats.put("siTotal", siTotal);
-        stats.put("tiTotal", tiTotal);
-        stats.put("siActive", siActive);
-        stats.put("tiActive", tiActive);
-        stats.put("siNotActive", siNotActive);
-        stats.put("tiNotActive", tiNotActive);
-        stats.put("totalStudents", allStudents.size());
-        stats.put("siSubjects", siSubjects);
-        stats.put("tiSubjects", tiSubjects);
-        stats.put("totalSubjects", allSubjects.size());
-
-        return stats;
+        return studentStatisticsService.getStatistics();
     }
 
     @Override
     public long countStudents() {
         return studentRepository.count();
     }
+
+    @Override
+    public void syncNimSequences() {
+        for (String nim : studentRepository.findHighestNimPerPrefix()) {
+            reserveNim(nim);
+        }
+    }
 }
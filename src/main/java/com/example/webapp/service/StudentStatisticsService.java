@@ -0,0 +1,26 @@
+package com.example.webapp.service;
+
+import java.util.Map;
+
+/**
+ * Service interface for the dashboard statistics view
+ * Keeps student and subject counts up to date as data changes,
+ * so reading them never touches the database
+ */
+public interface StudentStatisticsService {
+
+    /**
+     * Get the current statistics snapshot
+     */
+    Map<String, Object> getStatistics();
+
+    /**
+     * Start recording the statistics changes of a write; close it once the write is done
+     */
+    StatisticsChange beginChange();
+
+    /**
+     * Recount everything from the database, correcting any drift
+     */
+    void reconcile();
+}
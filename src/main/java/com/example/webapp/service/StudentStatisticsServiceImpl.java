@@ -0,0 +1,293 @@
+package com.example.webapp.service;
+
+import com.example.webapp.model.MajorCount;
+import com.example.webapp.model.MajorStatistics;
+import com.example.webapp.model.Student;
+import com.example.webapp.model.StudentStatus;
+import com.example.webapp.model.Subject;
+import com.example.webapp.repository.StudentRepository;
+import com.example.webapp.repository.SubjectRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Service implementation for the dashboard statistics view
+ * Counters are adjusted by the student and subject services on every write,
+ * and an immutable snapshot is republished so reads are O(1) and allocation-free.
+ * A scheduled reconciliation recounts from the database to correct any drift. Writes hold the
+ * shared side of a read/write lock from the database write until their change is applied. The
+ * recount runs its aggregations without the lock and takes the exclusive side only to wait for
+ * writes in progress and to swap in the new counters; a count that a write overlapped may or may
+ * not include it, so it is thrown away and tried again. Every write is in the counts or applied
+ * after them, never both.
+ */
+@Slf4j
+@Service
+public class StudentStatisticsServiceImpl implements StudentStatisticsService {
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Value("${major.options}")
+    private String majorOptions;
+
+    @Value("${statistics.reconcile-attempts:3}")
+    private int reconcileAttempts;
+
+    // Shared by writes in progress, exclusive while a reconcile waits for them or swaps in its counts
+    private final ReentrantReadWriteLock writeLock = new ReentrantReadWriteLock();
+
+    // Bumped by every write, so a reconcile can tell whether one overlapped its count
+    private final AtomicLong changeGeneration = new AtomicLong();
+
+    // One reconcile at a time (scheduled or the first getStatistics)
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+
+    // Counters, guarded by this
+    private final Map<String, MajorCounter> byMajor = new LinkedHashMap<>();
+    private long totalStudents;
+    private long totalSubjects;
+    private boolean loaded;
+
+    private volatile Map<String, Object> snapshot;
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> current = snapshot;
+        if (current == null) {
+            reconcileLock.lock();
+            try {
+                if (snapshot == null) {
+                    recount();
+                }
+            } finally {
+                reconcileLock.unlock();
+            }
+            current = snapshot;
+        }
+        return current;
+    }
+
+    @Override
+    public StatisticsChange beginChange() {
+        writeLock.readLock().lock();
+        changeGeneration.incrementAndGet();
+        return new Change();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${statistics.reconcile-interval-ms:300000}",
+               initialDelayString = "${statistics.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        reconcileLock.lock();
+        try {
+            recount();
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    /**
+     * Count from the database and replace the counters, with writes running meanwhile
+     */
+    private void recount() {
+        for (int attempt = 0; attempt < reconcileAttempts; attempt++) {
+            long generation = quiescentGeneration();
+            List<MajorCount> studentCounts = studentRepository.countByMajorAndStatus();
+            List<MajorCount> subjectCounts = subjectRepository.countByMajor();
+
+            writeLock.writeLock().lock();
+            try {
+                if (changeGeneration.get() == generation) {
+                    replaceCounters(studentCounts, subjectCounts);
+                    return;
+                }
+            } finally {
+                writeLock.writeLock().unlock();
+            }
+        }
+
+        if (snapshot != null) {
+            // The incremental counters stay in use; the next scheduled run tries again
+            log.debug("Statistics reconcile skipped: writes overlapped {} counts", reconcileAttempts);
+            return;
+        }
+
+        // Nothing to serve yet: count once with writes held back
+        writeLock.writeLock().lock();
+        try {
+            replaceCounters(studentRepository.countByMajorAndStatus(), subjectRepository.countByMajor());
+        } finally {
+            writeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Wait for the writes in progress and return the change generation
+     * Every write before it is then in the database, so a count started afterwards includes it
+     */
+    private long quiescentGeneration() {
+        writeLock.writeLock().lock();
+        try {
+            return changeGeneration.get();
+        } finally {
+            writeLock.writeLock().unlock();
+        }
+    }
+
+    private synchronized void replaceCounters(List<MajorCount> studentCounts, List<MajorCount> subjectCounts) {
+        resetCounters();
+        for (MajorCount count : studentCounts) {
+            totalStudents += count.getCount();
+            MajorCounter counter = byMajor.get(count.getMajor());
+            if (counter != null) {
+                counter.totalStudents += count.getCount();
+                counter.addToStatus(count.getStatus(), count.getCount());
+            }
+        }
+        for (MajorCount count : subjectCounts) {
+            totalSubjects += count.getCount();
+            MajorCounter counter = byMajor.get(count.getMajor());
+            if (counter != null) {
+                counter.subjects = count.getCount();
+            }
+        }
+        log.debug("Statistics reconciled: {} students, {} subjects", totalStudents, totalSubjects);
+        loaded = true;
+        publish();
+    }
+
+    /**
+     * Apply the changes of one write and republish once
+     */
+    private synchronized void apply(List<Runnable> changes) {
+        if (!loaded || changes.isEmpty()) {
+            return;  // The first reconcile will count them
+        }
+        changes.forEach(Runnable::run);
+        publish();
+    }
+
+    private void applyStudent(Student student, long delta) {
+        totalStudents += delta;
+        MajorCounter counter = byMajor.get(student.getMajor());
+        if (counter != null) {
+            counter.totalStudents += delta;
+            counter.addToStatus(student.getStatus(), delta);
+        }
+    }
+
+    private void applySubject(Subject subject, long delta) {
+        totalSubjects += delta;
+        MajorCounter counter = byMajor.get(subject.getMajor());
+        if (counter != null) {
+            counter.subjects += delta;
+        }
+    }
+
+    /**
+     * Start from zero for every major in major.options, in configuration order
+     */
+    private void resetCounters() {
+        byMajor.clear();
+        for (String major : Arrays.asList(majorOptions.split(","))) {
+            byMajor.put(major, new MajorCounter());
+        }
+        totalStudents = 0;
+        totalSubjects = 0;
+    }
+
+    /**
+     * Copy the counters into a new immutable snapshot for readers
+     */
+    private void publish() {
+        List<MajorStatistics> majors = new ArrayList<>();
+        byMajor.forEach((major, c) -> majors.add(new MajorStatistics(major, c.totalStudents, c.activeStudents,
+            c.notActiveStudents, c.dropoutStudents, c.subjects)));
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("majors", Collections.unmodifiableList(majors));
+        stats.put("totalStudents", totalStudents);
+        stats.put("totalSubjects", totalSubjects);
+        snapshot = Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * Mutable counters of one major, never handed to readers
+     */
+    private static final class MajorCounter {
+        long totalStudents;
+        long activeStudents;
+        long notActiveStudents;
+        long dropoutStudents;
+        long subjects;
+
+        void addToStatus(StudentStatus status, long delta) {
+            if (StudentStatus.ACTIVE.equals(status)) {
+                activeStudents += delta;
+            } else if (StudentStatus.NOT_ACTIVE.equals(status)) {
+                notActiveStudents += delta;
+            } else if (StudentStatus.DROPOUT.equals(status)) {
+                dropoutStudents += delta;
+            }
+        }
+    }
+
+    /**
+     * Changes of one write, holding the shared side of the lock until closed
+     */
+    private final class Change implements StatisticsChange {
+        private final List<Runnable> changes = new ArrayList<>();
+        private boolean closed;
+
+        @Override
+        public void studentChanged(Student before, Student after) {
+            if (before != null) {
+                changes.add(() -> applyStudent(before, -1));
+            }
+            if (after != null) {
+                changes.add(() -> applyStudent(after, 1));
+            }
+        }
+
+        @Override
+        public void subjectChanged(Subject before, Subject after) {
+            if (before != null) {
+                changes.add(() -> applySubject(before, -1));
+            }
+            if (after != null) {
+                changes.add(() -> applySubject(after, 1));
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                apply(changes);
+            } finally {
+                writeLock.readLock().unlock();
+            }
+        }
+    }
+}
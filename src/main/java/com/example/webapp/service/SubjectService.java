@@ -1,8 +1,13 @@
 package com.example.webapp.service;
 
+import com.example.webapp.model.BulkResult;
+import com.example.webapp.model.CursorPage;
+import com.example.webapp.model.SelectOption;
 import com.example.webapp.model.Subject;
+import com.example.webapp.model.SubjectFilter;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -16,6 +21,16 @@ public interface SubjectService {
      */
     List<Subject> getAllSubjects();
 
+    /**
+     * Get one page of subjects matching the filter (keyset pagination, sorted by code)
+     */
+    CursorPage<Subject> getSubjectPage(SubjectFilter filter);
+
+    /**
+     * Get id, code and name of the subjects matching the filter (for selectors)
+     */
+    List<SelectOption> getSubjectOptions(SubjectFilter filter);
+
     /**
      * Get subject by ID
      */
@@ -26,11 +41,23 @@ public interface SubjectService {
      */
     Subject createSubject(Subject subject);
 
+    /**
+     * Create many subjects at once: one validation pass, codes allocated in
+     * ranges, unordered bulk insert, and a result for every row
+     */
+    BulkResult bulkCreateSubjects(List<Subject> subjects);
+
     /**
      * Update existing subject
      */
     Subject updateSubject(String id, Subject subject);
 
+    /**
+     * Update only the fields in a JSON Merge Patch (null removes a field), optionally only
+     * if the stored version matches; empty when the subject does not exist
+     */
+    Optional<Subject> patchSubject(String id, Map<String, Object> patch, Long expectedVersion);
+
     /**
      * Delete subject by ID
      */
@@ -40,4 +67,9 @@ public interface SubjectService {
      * Count total subjects
      */
     long countSubjects();
+
+    /**
+     * Bring subject code sequence counters in line with the stored subjects
+     */
+    void syncCodeSequences();
 }
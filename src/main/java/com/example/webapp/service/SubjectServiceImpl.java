@@ -1,28 +1,85 @@
 package com.example.webapp.service;
 
+import com.example.webapp.model.BulkResult;
+import com.example.webapp.model.BulkRowResult;
+import com.example.webapp.model.CursorPage;
+import com.example.webapp.model.PageCursor;
+import com.example.webapp.model.SelectOption;
 import com.example.webapp.model.Subject;
+import com.example.webapp.model.SubjectFilter;
 import com.example.webapp.repository.SubjectRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Service implementation for Subject operations
  * Contains all business logic for subject management
  */
 @Service
+@Timed(value = "webapp.service", histogram = true)
 public class SubjectServiceImpl implements SubjectService {
 
+    private static final String CODE_SEQUENCE_PREFIX = "subject:";
+    // The code is derived from the major, so it is regenerated rather than patched
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("name", "major", "sks");
+    private static final Set<String> REQUIRED_FIELDS = PATCHABLE_FIELDS;
+
     @Autowired
     private SubjectRepository subjectRepository;
 
+    @Autowired
+    private SequenceService sequenceService;
+
+    @Autowired
+    private StudentStatisticsService studentStatisticsService;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${pagination.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${pagination.max-size:100}")
+    private int maxPageSize;
+
     @Override
     public List<Subject> getAllSubjects() {
         return subjectRepository.findAll();
     }
 
+    @Override
+    public CursorPage<Subject> getSubjectPage(SubjectFilter filter) {
+        PageCursor after = Pagination.decodeCursor(filter.getCursor(), "code");
+        int size = Pagination.pageSize(filter.getSize(), defaultPageSize, maxPageSize);
+
+        // Fetch one extra row to know whether another page follows
+        List<Subject> subjects = subjectRepository.findPage(filter, after, size + 1);
+        return Pagination.toPage(subjects, size, last -> new PageCursor("code", last.getId(), last.getCode()));
+    }
+
+    @Override
+    public List<SelectOption> getSubjectOptions(SubjectFilter filter) {
+        return subjectRepository.findOptions(filter);
+    }
+
     @Override
     public Optional<Subject> getSubjectById(String id) {
         return subjectRepository.findById(id);
@@ -31,6 +88,84 @@ public class SubjectServiceImpl implements SubjectService {
     @Override
     public Subject createSubject(Subject subject) {
         // Business logic: validate subject data before saving
+        validateSubject(subject);
+
+        // Auto-generate code based on major
+        subject.setCode(generateSubjectCode(subject.getMajor()));
+
+        // Always an insert; the version starts at 0
+        subject.setVersion(null);
+        Subject saved;
+        try (StatisticsChange change = studentStatisticsService.beginChange()) {
+            saved = subjectRepository.save(subject);
+            change.subjectChanged(null, saved);
+        }
+        referenceDataService.subjectsChanged();
+        return saved;
+    }
+
+    @Override
+    public BulkResult bulkCreateSubjects(List<Subject> subjects) {
+        BulkRowResult[] results = new BulkRowResult[subjects.size()];
+        List<Integer> validIndexes = new ArrayList<>();
+        Map<String, List<Subject>> byPrefix = new LinkedHashMap<>();
+
+        // Pass 1: validate every row, group by code prefix
+        for (int i = 0; i < subjects.size(); i++) {
+            Subject subject = subjects.get(i);
+            String error = validationError(subject);
+            if (error != null) {
+                results[i] = BulkRowResult.failed(i, error);
+                continue;
+            }
+            validIndexes.add(i);
+            byPrefix.computeIfAbsent(codePrefix(subject.getMajor()), k -> new ArrayList<>()).add(subject);
+        }
+
+        // Pass 2: one counter round trip per prefix
+        byPrefix.forEach((prefix, group) -> {
+            long first = sequenceService.nextRange(CODE_SEQUENCE_PREFIX + prefix, group.size(),
+                () -> findMaxCodeSequence(prefix));
+            for (int n = 0; n < group.size(); n++) {
+                group.get(n).setCode(String.format("%s%03d", prefix, first + n));
+            }
+        });
+
+        // Pass 3: unordered bulk insert, ids assigned up front so results can report them
+        List<Subject> valid = new ArrayList<>();
+        for (int index : validIndexes) {
+            Subject subject = subjects.get(index);
+            subject.setId(new ObjectId().toHexString());
+            subject.setVersion(0L);
+            valid.add(subject);
+        }
+        // The inserted rows reach the statistics as one change
+        Map<Integer, String> errors;
+        try (StatisticsChange change = studentStatisticsService.beginChange()) {
+            errors = subjectRepository.bulkInsert(valid);
+
+            for (int v = 0; v < valid.size(); v++) {
+                int index = validIndexes.get(v);
+                Subject subject = valid.get(v);
+                if (errors.containsKey(v)) {
+                    results[index] = BulkRowResult.failed(index, errors.get(v));
+                } else {
+                    results[index] = BulkRowResult.created(index, subject.getId(), subject.getCode());
+                    change.subjectChanged(null, subject);
+                }
+            }
+        }
+        if (errors.size() < valid.size()) {
+            referenceDataService.subjectsChanged();
+        }
+
+        return BulkResult.of(Arrays.asList(results));
+    }
+
+    /**
+     * Business validation shared by single and bulk create
+     */
+    private void validateSubject(Subject subject) {
         if (subject.getName() == null || subject.getName().trim().isEmpty()) {
             throw new IllegalArgumentException("Subject name cannot be empty");
         }
@@ -40,55 +175,79 @@ public class SubjectServiceImpl implements SubjectService {
         if (subject.getSks() == null || subject.getSks() < 1 || subject.getSks() > 6) {
             throw new IllegalArgumentException("SKS must be between 1 and 6");
         }
+    }
 
-        // Auto-generate code based on major
-        subject.setCode(generateSubjectCode(subject.getMajor()));
-
-        return subjectRepository.save(subject);
+    /**
+     * Bean validation plus business validation for one bulk row
+     * Returns null when the row is valid
+     */
+    private String validationError(Subject subject) {
+        if (subject == null) {
+            return "Row is empty";
+        }
+        Set<ConstraintViolation<Subject>> violations = validator.validate(subject);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+        }
+        try {
+            validateSubject(subject);
+            codePrefix(subject.getMajor());
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
     }
 
     /**
      * Generate subject code with format: XXYYY
      * XX = SI (Sistem Informasi) or TI (Teknologi Informasi)
-     * YYY = sequence number (001, 002, etc.)
+     * YYY = sequence number (001, 002, etc.), allocated per major by SequenceService
      */
     private String generateSubjectCode(String major) {
-        // Determine prefix based on major
-        String prefix;
-        if (major.equals("Sistem Informasi")) {
-            prefix = "SI";
-        } else if (major.equals("Teknologi Informasi")) {
-            prefix = "TI";
-        } else {
-            throw new IllegalArgumentException("Invalid major: " + major);
-        }
-
-        // Find max sequence for this major
-        List<Subject> existingSubjects = subjectRepository.findAll();
-        int maxSequence = 0;
-
-        for (Subject s : existingSubjects) {
-            if (s.getCode() != null && s.getCode().startsWith(prefix)) {
-                try {
-                    int sequence = Integer.parseInt(s.getCode().substring(2));
-                    if (sequence > maxSequence) {
-                        maxSequence = sequence;
-                    }
-                } catch (Exception e) {
-                    // Skip invalid code format
-                }
-            }
+        String prefix = codePrefix(major);
+        long sequence = sequenceService.nextValue(CODE_SEQUENCE_PREFIX + prefix,
+            () -> findMaxCodeSequence(prefix));
+
+        return String.format("%s%03d", prefix, sequence);
+    }
+
+    /**
+     * Determine code prefix based on major
+     */
+    private String codePrefix(String major) {
+        if ("Sistem Informasi".equals(major)) {
+            return "SI";
+        } else if ("Teknologi Informasi".equals(major)) {
+            return "TI";
         }
+        throw new IllegalArgumentException("Invalid major: " + major);
+    }
 
-        // Generate new code with next sequence number
-        int newSequence = maxSequence + 1;
-        return String.format("%s%03d", prefix, newSequence);
+    /**
+     * Find the highest sequence number already used for a code prefix
+     */
+    private long findMaxCodeSequence(String prefix) {
+        // Prefixes are two capital letters, so they need no regex escaping
+        return subjectRepository.findMaxCodeSequence("^" + prefix + "[0-9]{3,}$").orElse(0L);
+    }
+
+    private long parseCodeSequence(String code) {
+        try {
+            return Long.parseLong(code.substring(2));
+        } catch (Exception e) {
+            // Skip invalid code format
+            return 0L;
+        }
     }
 
     @Override
     public Subject updateSubject(String id, Subject subject) {
         // Business logic: check if subject exists before updating
-        Optional<Subject> existingSubject = subjectRepository.findById(id);
+        // Only the stored major and code are needed, read from the database rather than the entity cache
+        Optional<Subject> existingSubject = subjectRepository.findMajorAndCodeById(id);
         if (existingSubject.isEmpty()) {
             throw new IllegalArgumentException("Subject not found with id: " + id);
         }
@@ -114,8 +273,61 @@ public class SubjectServiceImpl implements SubjectService {
             subject.setCode(existing.getCode());
         }
 
+        // Without an explicit version the client gets last-write-wins against the current revision
+        Long expectedVersion = subject.getVersion();
+
         subject.setId(id);
-        return subjectRepository.save(subject);
+        try (StatisticsChange change = studentStatisticsService.beginChange()) {
+            Subject previous = subjectRepository.replaceIfVersion(subject, expectedVersion);
+            if (previous == null) {
+                if (expectedVersion != null && subjectRepository.existsById(id)) {
+                    throw new OptimisticLockingFailureException("Subject " + id + " was modified by another request");
+                }
+                throw new IllegalArgumentException("Subject not found with id: " + id);
+            }
+
+            subject.setVersion(previous.getVersion() == null ? 1L : previous.getVersion() + 1);
+            change.subjectChanged(previous, subject);
+        }
+        referenceDataService.subjectsChanged();
+        return subject;
+    }
+
+    @Override
+    public Optional<Subject> patchSubject(String id, Map<String, Object> patch, Long expectedVersion) {
+        Map<String, Object> fields = MergePatch.fieldValues(Subject.class, patch, PATCHABLE_FIELDS, REQUIRED_FIELDS, validator);
+
+        if (fields.containsKey("major")) {
+            // Same rule as updateSubject: a changed major gets a new code
+            Optional<Subject> existing = subjectRepository.findMajorAndCodeById(id);
+            if (existing.isEmpty()) {
+                return Optional.empty();
+            }
+            String major = existing.get().getMajor();
+            if (major != null && !major.equals(fields.get("major"))) {
+                fields.put("code", generateSubjectCode((String) fields.get("major")));
+            }
+            // The code was decided on this version, so only that version may be patched
+            if (expectedVersion == null) {
+                expectedVersion = existing.get().getVersion();
+            }
+        }
+
+        Subject patched;
+        try (StatisticsChange change = studentStatisticsService.beginChange()) {
+            Subject previous = subjectRepository.patchIfVersion(id, fields, expectedVersion);
+            if (previous == null) {
+                if (expectedVersion != null && subjectRepository.existsById(id)) {
+                    throw new OptimisticLockingFailureException("Subject " + id + " was modified by another request");
+                }
+                return Optional.empty();
+            }
+
+            patched = MergePatch.applied(previous, fields);
+            change.subjectChanged(previous, patched);
+        }
+        referenceDataService.subjectsChanged();
+        return Optional.of(patched);
     }
 
     @Override
@@ -126,11 +338,22 @@ public class SubjectServiceImpl implements SubjectService {
             throw new IllegalArgumentException("Subject not found with id: " + id);
         }
 
-        subjectRepository.deleteById(id);
+        try (StatisticsChange change = studentStatisticsService.beginChange()) {
+            subjectRepository.deleteById(id);
+            change.subjectChanged(subject.get(), null);
+        }
+        referenceDataService.subjectsChanged();
     }
 
     @Override
     public long countSubjects() {
         return subjectRepository.count();
     }
+
+    @Override
+    public void syncCodeSequences() {
+        for (String code : subjectRepository.findHighestCodePerPrefix()) {
+            sequenceService.advanceTo(CODE_SEQUENCE_PREFIX + code.substring(0, 2), parseCodeSequence(code));
+        }
+    }
 }
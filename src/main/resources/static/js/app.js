@@ -26,6 +26,15 @@ const app = createApp({
 
             // Student data from studentModule
             studentList: [],
+            studentNextCursor: null,
+            studentFilter: {
+                major: '',
+                batch: null,
+                status: '',
+                name: '',
+                sort: 'nim',
+                direction: 'asc'
+            },
             studentForm: {
                 id: null,
                 nim: '',
@@ -33,22 +42,36 @@ const app = createApp({
                 email: '',
                 major: '',
                 batch: null,
-                status: ''
+                status: '',
+                version: null
             },
             majorOptions: [],
+            semesterOptions: [],
 
             // Subject data from subjectModule
             subjectList: [],
+            subjectNextCursor: null,
+            subjectFilter: {
+                major: '',
+                sks: null,
+                code: ''
+            },
             subjectForm: {
                 id: null,
                 code: '',
                 name: '',
                 major: '',
-                sks: null
+                sks: null,
+                version: null
             },
 
             // Class data from classModule
             classList: [],
+            classNextCursor: null,
+            classFilter: {
+                semester: '',
+                year: null
+            },
             classForm: {
                 id: null,
                 code: '',
@@ -57,23 +80,23 @@ const app = createApp({
                 subjectName: '',
                 semester: '',
                 year: null,
-                studentIds: []
+                studentIds: [],
+                version: null
             },
             availableStudents: [],
+            studentSearch: '',
             enrolledStudents: [],
+            enrolledNextCursor: null,
+            cohortForm: {
+                major: '',
+                batch: null
+            },
             subjectOptions: [],
 
             // Dashboard data from dashboardModule
             stats: {
-                siTotal: 0,
-                tiTotal: 0,
-                siActive: 0,
-                tiActive: 0,
-                siNotActive: 0,
-                tiNotActive: 0,
+                majors: [],
                 totalStudents: 0,
-                siSubjects: 0,
-                tiSubjects: 0,
                 totalSubjects: 0
             },
 
@@ -6,6 +6,11 @@ const classModule = {
     // Class data
     data: {
         classList: [],
+        classNextCursor: null,
+        classFilter: {
+            semester: '',
+            year: null
+        },
         classForm: {
             id: null,
             code: '',
@@ -14,24 +19,46 @@ const classModule = {
             subjectName: '',
             semester: '',
             year: null,
-            studentIds: []
+            studentIds: [],
+            version: null       // Sent back on update so concurrent edits are detected
+        },
+        availableStudents: [],  // Students matching studentSearch for selection (id, code = NIM, name)
+        studentSearch: '',      // NIM or name prefix for availableStudents
+        enrolledStudents: [],    // Loaded roster pages of the class (id, nim, name, major, batch, status)
+        enrolledNextCursor: null,
+        cohortForm: {            // Major and/or batch to enroll as a group
+            major: '',
+            batch: null
         },
-        availableStudents: [],  // All students for selection
-        enrolledStudents: [],    // Students currently in the class
-        subjectOptions: []       // All subjects for dropdown
+        subjectOptions: []       // All subjects for dropdown (id, code, name)
     },
 
     // Class methods
     methods: {
         /**
-         * Load all classes from API
+         * Load the first page of classes (or the next page when append is true)
          */
-        loadClasses() {
-            fetch('/api/classes')
+        loadClasses(append) {
+            const params = new URLSearchParams();
+            Object.entries(this.classFilter).forEach(([key, value]) => {
+                if (value !== null && value !== '') {
+                    params.append(key, value);
+                }
+            });
+            if (append && this.classNextCursor) {
+                params.append('cursor', this.classNextCursor);
+            }
+
+            fetch('/api/classes/page?' + params.toString())
                 .then(response => response.json())
                 .then(data => {
-                    // Force Vue reactivity by replacing the entire array
-                    this.classList.splice(0, this.classList.length, ...data);
+                    if (append) {
+                        this.classList.push(...data.items);
+                    } else {
+                        // Force Vue reactivity by replacing the entire array
+                        this.classList.splice(0, this.classList.length, ...data.items);
+                    }
+                    this.classNextCursor = data.nextCursor;
                 })
                 .catch(error => {
                     console.error('Error loading classes:', error);
@@ -40,13 +67,21 @@ const classModule = {
         },
 
         /**
-         * Load all subjects for dropdown
+         * Load the next page of classes
+         */
+        loadMoreClasses() {
+            this.loadClasses(true);
+        },
+
+        /**
+         * Load subject id, code and name for dropdown
+         * Reference data carries an ETag, so repeat loads are answered with 304 Not Modified
          */
         loadSubjectOptions() {
-            fetch('/api/subjects')
+            fetch('/api/reference-data')
                 .then(response => response.json())
                 .then(data => {
-                    this.subjectOptions = data;
+                    this.subjectOptions = data.subjects;
                 })
                 .catch(error => {
                     console.error('Error loading subjects:', error);
@@ -54,10 +89,12 @@ const classModule = {
         },
 
         /**
-         * Load all students for selection
+         * Load id, NIM and name of the first students matching the search for selection
          */
         loadAvailableStudents() {
-            fetch('/api/students')
+            const params = new URLSearchParams({ size: 50 });
+            if (this.studentSearch) params.set('q', this.studentSearch);
+            fetch(`/api/students/options?${params}`)
                 .then(response => response.json())
                 .then(data => {
                     this.availableStudents = data;
@@ -84,6 +121,7 @@ const classModule = {
                 this.classForm.semester = classRoom.semester;
                 this.classForm.year = classRoom.year;
                 this.classForm.studentIds = classRoom.studentIds || [];
+                this.classForm.version = classRoom.version;
                 // Load enrolled students
                 this.loadEnrolledStudents(classRoom.id);
             } else {
@@ -96,10 +134,13 @@ const classModule = {
                 this.classForm.semester = '';
                 this.classForm.year = new Date().getFullYear();
                 this.classForm.studentIds = [];
+                this.classForm.version = null;
                 this.enrolledStudents = [];
+                this.enrolledNextCursor = null;
             }
 
             // Load available students
+            this.studentSearch = '';
             this.loadAvailableStudents();
 
             // Show Bootstrap modal
@@ -108,30 +149,36 @@ const classModule = {
         },
 
         /**
-         * Load enrolled students for a class
+         * Load the first page of the class roster (or the next page when append is true)
          */
-        loadEnrolledStudents(classId) {
-            fetch(`/api/classes/${classId}`)
+        loadEnrolledStudents(classId, append) {
+            const params = new URLSearchParams({ size: 100 });
+            if (append && this.enrolledNextCursor) {
+                params.append('cursor', this.enrolledNextCursor);
+            }
+
+            fetch(`/api/classes/${classId}/students?` + params.toString())
                 .then(response => response.json())
-                .then(classData => {
-                    // Fetch full student details
-                    if (classData.studentIds && classData.studentIds.length > 0) {
-                        fetch('/api/students')
-                            .then(response => response.json())
-                            .then(allStudents => {
-                                this.enrolledStudents = allStudents.filter(s =>
-                                    classData.studentIds.includes(s.id)
-                                );
-                            });
+                .then(data => {
+                    if (append) {
+                        this.enrolledStudents.push(...data.items);
                     } else {
-                        this.enrolledStudents = [];
+                        this.enrolledStudents = data.items;
                     }
+                    this.enrolledNextCursor = data.nextCursor;
                 })
                 .catch(error => {
                     console.error('Error loading enrolled students:', error);
                 });
         },
 
+        /**
+         * Load the next page of the class roster
+         */
+        loadMoreEnrolledStudents() {
+            this.loadEnrolledStudents(this.classForm.id, true);
+        },
+
         /**
          * Update class name based on subject, year, and semester
          */
@@ -171,13 +218,21 @@ const classModule = {
             const method = this.classForm.id ? 'PUT' : 'POST';
 
             // Send request to API
+            const headers = { 'Content-Type': 'application/json' };
+            if (this.classForm.id && this.classForm.version != null) {
+                // Rejected with 412 if someone else saved this record since it was loaded
+                headers['If-Match'] = `"${this.classForm.version}"`;
+            }
+
             fetch(url, {
                 method: method,
-                headers: { 'Content-Type': 'application/json' },
+                headers: headers,
                 body: JSON.stringify(this.classForm)
             })
             .then(response => {
-                if (response.ok) {
+                if (response.status === 412) {
+                    this.showNotification('error', 'Data kelas telah diubah oleh pengguna lain, silakan muat ulang');
+                } else if (response.ok) {
                     this.showNotification('success', 'Data kelas berhasil disimpan');
                     bootstrap.Modal.getInstance(document.getElementById('classModal')).hide();
                     this.loadClasses();
@@ -204,6 +259,7 @@ const classModule = {
             this.classForm.semester = classRoom.semester;
             this.classForm.year = classRoom.year;
             this.classForm.studentIds = classRoom.studentIds || [];
+            this.classForm.version = classRoom.version;
 
             this.loadEnrolledStudents(classRoom.id);
             this.loadAvailableStudents();
@@ -221,9 +277,12 @@ const classModule = {
             fetch(`/api/classes/${this.classForm.id}/students/${studentId}`, {
                 method: 'POST'
             })
-            .then(response => {
-                if (response.ok) {
+            .then(response => response.ok ? response.json() : null)
+            .then(updated => {
+                if (updated) {
                     this.showNotification('success', 'Mahasiswa berhasil ditambahkan ke kelas');
+                    // Enrollment bumps the class version; keep it so a later save is not refused with 412
+                    this.classForm.version = updated.version;
                     // Update local classForm
                     if (!this.classForm.studentIds.includes(studentId)) {
                         this.classForm.studentIds.push(studentId);
@@ -253,9 +312,11 @@ const classModule = {
                 fetch(`/api/classes/${this.classForm.id}/students/${studentId}`, {
                     method: 'DELETE'
                 })
-                .then(response => {
-                    if (response.ok) {
+                .then(response => response.ok ? response.json() : null)
+                .then(updated => {
+                    if (updated) {
                         this.showNotification('success', 'Mahasiswa berhasil dihapus dari kelas');
+                        this.classForm.version = updated.version;
                         // Update local classForm
                         const index = this.classForm.studentIds.indexOf(studentId);
                         if (index > -1) {
@@ -277,12 +338,53 @@ const classModule = {
             });
         },
 
+        /**
+         * Enroll every student of the selected major and/or batch in one request
+         */
+        enrollCohort() {
+            if (!this.classForm.id) return;
+
+            const cohort = {};
+            if (this.cohortForm.major) cohort.major = this.cohortForm.major;
+            if (this.cohortForm.batch) cohort.batch = this.cohortForm.batch;
+
+            fetch(`/api/classes/${this.classForm.id}/enrollments`, {
+                method: 'POST',
+                headers: { 'Content-Type': 'application/json' },
+                body: JSON.stringify({ cohort: cohort })
+            })
+            .then(response => {
+                if (!response.ok) {
+                    throw new Error('Enrollment failed');
+                }
+                return response.json();
+            })
+            .then(result => {
+                this.showNotification('success', `${result.added} mahasiswa berhasil ditambahkan ke kelas`);
+                this.classForm.version = result.version;
+                // Update local classForm
+                const enrolledIds = new Set(this.classForm.studentIds);
+                result.items
+                    .filter(item => item.success && !enrolledIds.has(item.studentId))
+                    .forEach(item => {
+                        enrolledIds.add(item.studentId);
+                        this.classForm.studentIds.push(item.studentId);
+                    });
+                this.loadEnrolledStudents(this.classForm.id);
+                this.loadClasses();  // Refresh class list
+            })
+            .catch(error => {
+                console.error('Error enrolling cohort:', error);
+                this.showNotification('error', 'Gagal menambahkan mahasiswa');
+            });
+        },
+
         /**
          * Get students not enrolled in current class
          */
         getUnenrolledStudents() {
-            const enrolledIds = this.enrolledStudents.map(s => s.id);
-            return this.availableStudents.filter(s => !enrolledIds.includes(s.id));
+            const enrolledIds = new Set(this.classForm.studentIds);
+            return this.availableStudents.filter(s => !enrolledIds.has(s.id));
         }
     }
 };
@@ -6,13 +6,9 @@ const dashboardModule = {
     // Dashboard data
     data: {
         stats: {
-            siTotal: 0,
-            tiTotal: 0,
-            siActive: 0,
-            tiActive: 0,
-            siNotActive: 0,
-            tiNotActive: 0,
-            totalStudents: 0
+            majors: [],
+            totalStudents: 0,
+            totalSubjects: 0
         }
     },
 
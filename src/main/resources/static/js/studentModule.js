@@ -6,6 +6,15 @@ const studentModule = {
     // Student data
     data: {
         studentList: [],
+        studentNextCursor: null,
+        studentFilter: {
+            major: '',
+            batch: null,
+            status: '',
+            name: '',
+            sort: 'nim',
+            direction: 'asc'
+        },
         studentForm: {
             id: null,
             nim: '',
@@ -13,21 +22,34 @@ const studentModule = {
             email: '',
             major: '',
             batch: null,
-            status: ''
+            status: '',
+            version: null       // Sent back on update so concurrent edits are detected
         },
-        majorOptions: []
+        majorOptions: [],
+        semesterOptions: []
     },
 
     // Student methods
     methods: {
         /**
-         * Load all students from API
+         * Load the first page of students (or the next page when append is true)
          */
-        loadStudents() {
-            fetch('/api/students')
+        loadStudents(append) {
+            const params = new URLSearchParams();
+            Object.entries(this.studentFilter).forEach(([key, value]) => {
+                if (value !== null && value !== '') {
+                    params.append(key, value);
+                }
+            });
+            if (append && this.studentNextCursor) {
+                params.append('cursor', this.studentNextCursor);
+            }
+
+            fetch('/api/students/page?' + params.toString())
                 .then(response => response.json())
                 .then(data => {
-                    this.studentList = data;
+                    this.studentList = append ? this.studentList.concat(data.items) : data.items;
+                    this.studentNextCursor = data.nextCursor;
                 })
                 .catch(error => {
                     console.error('Error loading students:', error);
@@ -36,13 +58,22 @@ const studentModule = {
         },
 
         /**
-         * Load major options for dropdown
+         * Load the next page of students
+         */
+        loadMoreStudents() {
+            this.loadStudents(true);
+        },
+
+        /**
+         * Load major and semester options for dropdowns
+         * Reference data carries an ETag, so repeat loads are answered with 304 Not Modified
          */
         loadMajorOptions() {
-            fetch('/api/students/major-options')
+            fetch('/api/reference-data')
                 .then(response => response.json())
                 .then(data => {
-                    this.majorOptions = data.options;
+                    this.majorOptions = data.majors;
+                    this.semesterOptions = data.semesters;
                 })
                 .catch(error => {
                     console.error('Error loading major options:', error);
@@ -62,7 +93,8 @@ const studentModule = {
                     email: student.email,
                     major: student.major,
                     batch: student.batch,
-                    status: student.status
+                    status: student.status,
+                    version: student.version
                 });
             } else {
                 // Add mode - reset form
@@ -73,7 +105,8 @@ const studentModule = {
                     email: '',
                     major: '',
                     batch: null,
-                    status: ''
+                    status: '',
+                    version: null
                 });
             }
 
@@ -106,13 +139,21 @@ const studentModule = {
             const method = this.studentForm.id ? 'PUT' : 'POST';
 
             // Send request to API
+            const headers = { 'Content-Type': 'application/json' };
+            if (this.studentForm.id && this.studentForm.version != null) {
+                // Rejected with 412 if someone else saved this record since it was loaded
+                headers['If-Match'] = `"${this.studentForm.version}"`;
+            }
+
             fetch(url, {
                 method: method,
-                headers: { 'Content-Type': 'application/json' },
+                headers: headers,
                 body: JSON.stringify(this.studentForm)
             })
             .then(response => {
-                if (response.ok) {
+                if (response.status === 412) {
+                    this.showNotification('error', 'Data mahasiswa telah diubah oleh pengguna lain, silakan muat ulang');
+                } else if (response.ok) {
                     this.showNotification('success', 'Data mahasiswa berhasil disimpan');
                     bootstrap.Modal.getInstance(document.getElementById('studentModal')).hide();
                     this.loadStudents();
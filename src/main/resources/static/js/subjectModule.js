@@ -6,25 +6,43 @@ const subjectModule = {
     // Subject data
     data: {
         subjectList: [],
+        subjectNextCursor: null,
+        subjectFilter: {
+            major: '',
+            sks: null,
+            code: ''
+        },
         subjectForm: {
             id: null,
             code: '',
             name: '',
             major: '',
-            sks: null
+            sks: null,
+            version: null       // Sent back on update so concurrent edits are detected
         }
     },
 
     // Subject methods
     methods: {
         /**
-         * Load all subjects from API
+         * Load the first page of subjects (or the next page when append is true)
          */
-        loadSubjects() {
-            fetch('/api/subjects')
+        loadSubjects(append) {
+            const params = new URLSearchParams();
+            Object.entries(this.subjectFilter).forEach(([key, value]) => {
+                if (value !== null && value !== '') {
+                    params.append(key, value);
+                }
+            });
+            if (append && this.subjectNextCursor) {
+                params.append('cursor', this.subjectNextCursor);
+            }
+
+            fetch('/api/subjects/page?' + params.toString())
                 .then(response => response.json())
                 .then(data => {
-                    this.subjectList = data;
+                    this.subjectList = append ? this.subjectList.concat(data.items) : data.items;
+                    this.subjectNextCursor = data.nextCursor;
                 })
                 .catch(error => {
                     console.error('Error loading subjects:', error);
@@ -32,6 +50,13 @@ const subjectModule = {
                 });
         },
 
+        /**
+         * Load the next page of subjects
+         */
+        loadMoreSubjects() {
+            this.loadSubjects(true);
+        },
+
         /**
          * Show subject modal (for add or edit)
          */
@@ -43,6 +68,7 @@ const subjectModule = {
                 this.subjectForm.name = subject.name;
                 this.subjectForm.major = subject.major;
                 this.subjectForm.sks = subject.sks;
+                this.subjectForm.version = subject.version;
             } else {
                 // Add mode - reset form
                 this.subjectForm.id = null;
@@ -50,6 +76,7 @@ const subjectModule = {
                 this.subjectForm.name = '';
                 this.subjectForm.major = '';
                 this.subjectForm.sks = null;
+                this.subjectForm.version = null;
             }
 
             // Show Bootstrap modal
@@ -76,13 +103,21 @@ const subjectModule = {
             const method = this.subjectForm.id ? 'PUT' : 'POST';
 
             // Send request to API
+            const headers = { 'Content-Type': 'application/json' };
+            if (this.subjectForm.id && this.subjectForm.version != null) {
+                // Rejected with 412 if someone else saved this record since it was loaded
+                headers['If-Match'] = `"${this.subjectForm.version}"`;
+            }
+
             fetch(url, {
                 method: method,
-                headers: { 'Content-Type': 'application/json' },
+                headers: headers,
                 body: JSON.stringify(this.subjectForm)
             })
             .then(response => {
-                if (response.ok) {
+                if (response.status === 412) {
+                    this.showNotification('error', 'Data mata kuliah telah diubah oleh pengguna lain, silakan muat ulang');
+                } else if (response.ok) {
                     this.showNotification('success', 'Data mata kuliah berhasil disimpan');
                     bootstrap.Modal.getInstance(document.getElementById('subjectModal')).hide();
                     this.loadSubjects();
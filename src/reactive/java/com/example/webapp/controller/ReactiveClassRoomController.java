@@ -0,0 +1,58 @@
+package com.example.webapp.controller;
+
+import com.example.webapp.model.ClassRoom;
+import com.example.webapp.model.RosterEntry;
+import com.example.webapp.repository.ReactiveClassRoomRepository;
+import com.example.webapp.repository.ReactiveStudentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive read API for classes (built with -Preactive)
+ * With Accept: application/x-ndjson lists are streamed with backpressure.
+ */
+@RestController
+@RequestMapping("/api/reactive/classes")
+public class ReactiveClassRoomController {
+
+    @Autowired
+    private ReactiveClassRoomRepository classRoomRepository;
+
+    @Autowired
+    private ReactiveStudentRepository studentRepository;
+
+    /**
+     * All classes sorted by code
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<ClassRoom> getAllClasses() {
+        return classRoomRepository.findAllByOrderByCodeAsc();
+    }
+
+    /**
+     * Get class by ID
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ClassRoom>> getClassById(@PathVariable String id) {
+        return classRoomRepository.findById(id)
+            .map(classRoom -> ETags.ok(ETags.of(classRoom)).body(classRoom))
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Roster of a class sorted by NIM (404 for an unknown class, like /api/classes/{id}/students)
+     */
+    @GetMapping(value = "/{id}/students", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Mono<ResponseEntity<Flux<RosterEntry>>> getClassRoster(@PathVariable String id) {
+        return classRoomRepository.findStudentIdsById(id)
+            .map(classRoom -> ResponseEntity.ok(studentRepository.findByIdInOrderByNimAsc(classRoom.enrolledStudentIds())))
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.webapp.controller;
+
+import com.example.webapp.model.Student;
+import com.example.webapp.repository.ReactiveStudentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive read API for students (built with -Preactive)
+ * No request thread waits on MongoDB. With Accept: application/x-ndjson the list is
+ * streamed: each student is written as it arrives and the next one is requested only
+ * after the write, so a slow client holds back the cursor instead of filling memory.
+ */
+@RestController
+@RequestMapping("/api/reactive/students")
+public class ReactiveStudentController {
+
+    @Autowired
+    private ReactiveStudentRepository studentRepository;
+
+    /**
+     * All students sorted by NIM
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<Student> getAllStudents() {
+        return studentRepository.findAllByOrderByNimAsc();
+    }
+
+    /**
+     * Get student by ID
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Student>> getStudentById(@PathVariable String id) {
+        return studentRepository.findById(id)
+            .map(student -> ETags.ok(ETags.of(student)).body(student))
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.webapp.controller;
+
+import com.example.webapp.model.Subject;
+import com.example.webapp.repository.ReactiveSubjectRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive read API for subjects (built with -Preactive)
+ * With Accept: application/x-ndjson the list is streamed with backpressure.
+ */
+@RestController
+@RequestMapping("/api/reactive/subjects")
+public class ReactiveSubjectController {
+
+    @Autowired
+    private ReactiveSubjectRepository subjectRepository;
+
+    /**
+     * All subjects sorted by code
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<Subject> getAllSubjects() {
+        return subjectRepository.findAllByOrderByCodeAsc();
+    }
+
+    /**
+     * Get subject by ID
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Subject>> getSubjectById(@PathVariable String id) {
+        return subjectRepository.findById(id)
+            .map(subject -> ETags.ok(ETags.of(subject)).body(subject))
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
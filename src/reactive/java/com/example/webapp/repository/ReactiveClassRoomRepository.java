@@ -0,0 +1,25 @@
+package com.example.webapp.repository;
+
+import com.example.webapp.model.ClassRoom;
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of ClassRoomRepository, used by the reactive read API
+ * Reads only; writes go through ClassRoomRepository and the services.
+ */
+@Repository
+public interface ReactiveClassRoomRepository extends ReactiveMongoRepository<ClassRoom, String> {
+
+    // All classes in code order; further batches are fetched as the subscriber requests them
+    @Meta(cursorBatchSize = 500)
+    Flux<ClassRoom> findAllByOrderByCodeAsc();
+
+    // Only the enrolled student IDs of a class
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'studentIds': 1 }")
+    Mono<ClassRoom> findStudentIdsById(String id);
+}
@@ -0,0 +1,26 @@
+package com.example.webapp.repository;
+
+import com.example.webapp.model.RosterEntry;
+import com.example.webapp.model.Student;
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+/**
+ * Non-blocking counterpart of StudentRepository, used by the reactive read API
+ * Reads only; writes go through StudentRepository and the services.
+ */
+@Repository
+public interface ReactiveStudentRepository extends ReactiveMongoRepository<Student, String> {
+
+    // All students in NIM order; further batches are fetched as the subscriber requests them
+    @Meta(cursorBatchSize = 500)
+    Flux<Student> findAllByOrderByNimAsc();
+
+    // Roster rows of the given students in NIM order
+    @Meta(cursorBatchSize = 500)
+    Flux<RosterEntry> findByIdInOrderByNimAsc(Collection<String> ids);
+}
@@ -0,0 +1,19 @@
+package com.example.webapp.repository;
+
+import com.example.webapp.model.Subject;
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking counterpart of SubjectRepository, used by the reactive read API
+ * Reads only; writes go through SubjectRepository and the services.
+ */
+@Repository
+public interface ReactiveSubjectRepository extends ReactiveMongoRepository<Subject, String> {
+
+    // All subjects in code order; further batches are fetched as the subscriber requests them
+    @Meta(cursorBatchSize = 500)
+    Flux<Subject> findAllByOrderByCodeAsc();
+}
@@ -0,0 +1,31 @@
+package com.example.webapp;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Base for Spring Boot tests against an in-memory MongoDB
+ * One server for the whole test run, so test classes share the cached application context.
+ * The in-memory server has no explain command, so the profiler does not ask for plans.
+ */
+@TestPropertySource(properties = {
+    "mongo.profiler.explain=false",
+    "logging.level.org.springframework.security=INFO",
+    "logging.level.org.springframework.web=INFO"
+})
+public abstract class MongoTestSupport {
+
+    private static final MongoServer MONGO = new MongoServer(new MemoryBackend());
+    private static final InetSocketAddress ADDRESS = MONGO.bind();
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri",
+            () -> "mongodb://" + ADDRESS.getHostString() + ":" + ADDRESS.getPort());
+    }
+}
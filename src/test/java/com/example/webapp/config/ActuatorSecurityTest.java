@@ -0,0 +1,84 @@
+package com.example.webapp.config;
+
+import com.example.webapp.MongoTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Health is public, Prometheus metrics need the scrape user or an admin (HTTP Basic),
+ * and HTTP Basic is not accepted outside the actuator. Without a password there is no scrape user.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "metrics.scrape.password=prometheus")
+// Metrics export (and with it the prometheus endpoint) is off in tests unless asked for
+@AutoConfigureObservability(tracing = false)
+class ActuatorSecurityTest extends MongoTestSupport {
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newBuilder()
+        .followRedirects(HttpClient.Redirect.NEVER)
+        .build();
+
+    @Test
+    void healthIsPublic() throws Exception {
+        assertThat(get("/actuator/health", null).statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    void prometheusNeedsTheScrapeUserOrAnAdmin() throws Exception {
+        HttpResponse<String> anonymous = get("/actuator/prometheus", null);
+        assertThat(anonymous.statusCode()).isEqualTo(401);
+        assertThat(anonymous.headers().firstValue("WWW-Authenticate")).hasValueSatisfying(
+            challenge -> assertThat(challenge).startsWith("Basic"));
+
+        HttpResponse<String> scraped = get("/actuator/prometheus", "prometheus:prometheus");
+        assertThat(scraped.statusCode()).isEqualTo(200);
+        assertThat(scraped.body()).contains("http_server_requests_seconds");
+
+        assertThat(get("/actuator/prometheus", "admin:admin").statusCode()).isEqualTo(200);
+        assertThat(get("/actuator/prometheus", "user:user").statusCode()).isEqualTo(403);
+        assertThat(get("/actuator/prometheus", "prometheus:wrong").statusCode()).isEqualTo(401);
+    }
+
+    @Test
+    void scrapeUserCannotReadAnythingElse() throws Exception {
+        assertThat(get("/actuator/metrics", "prometheus:prometheus").statusCode()).isEqualTo(403);
+        assertThat(get("/actuator/metrics", "admin:admin").statusCode()).isEqualTo(200);
+        // No HTTP Basic outside the actuator: the API redirects to the login form
+        assertThat(get("/api/students/page", "admin:admin").statusCode()).isEqualTo(302);
+    }
+
+    @Test
+    void scrapeUserIsDisabledWithoutAPassword() {
+        UserDetailsService users = new SecurityConfig().userDetailsService("prometheus", "");
+
+        assertThatThrownBy(() -> users.loadUserByUsername("prometheus")).isInstanceOf(UsernameNotFoundException.class);
+        assertThat(users.loadUserByUsername("admin").getUsername()).isEqualTo("admin");
+    }
+
+    private HttpResponse<String> get(String path, String credentials) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if (credentials != null) {
+            request.header("Authorization",
+                "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
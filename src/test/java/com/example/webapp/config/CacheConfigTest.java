@@ -0,0 +1,43 @@
+package com.example.webapp.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheConfigTest {
+
+    private final CacheConfig.LoadCheckedCaffeineCache cache =
+        new CacheConfig.LoadCheckedCaffeineCache("students", Caffeine.newBuilder().build(), true);
+
+    @Test
+    void loadIsCachedWhenNothingWasEvicted() {
+        assertThat(cache.get("1", () -> "loaded")).isEqualTo("loaded");
+
+        assertThat(cache.get("1", () -> "loaded again")).isEqualTo("loaded");
+    }
+
+    @Test
+    void loadOverlappedByAnEvictionIsNotCached() {
+        // A write commits and evicts the key after the load has read the old document
+        String loaded = cache.get("1", () -> {
+            cache.evict("1");
+            return "old";
+        });
+
+        assertThat(loaded).isEqualTo("old");
+        assertThat(cache.get("1")).isNull();
+        assertThat(cache.get("1", () -> "new")).isEqualTo("new");
+        assertThat(cache.get("1", () -> "newer")).isEqualTo("new");
+    }
+
+    @Test
+    void loadOverlappedByAClearIsNotCached() {
+        cache.get("1", () -> {
+            cache.clear();
+            return "old";
+        });
+
+        assertThat(cache.get("1")).isNull();
+    }
+}
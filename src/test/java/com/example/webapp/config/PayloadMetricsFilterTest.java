@@ -0,0 +1,66 @@
+package com.example.webapp.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PayloadMetricsFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PayloadMetricsFilter filter = new PayloadMetricsFilter();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(filter, "meterRegistry", registry);
+    }
+
+    @Test
+    void countsBodiesReadAndWrittenAsStreams() throws Exception {
+        MockHttpServletRequest request = request("{\"name\":\"Budi\"}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            req.getInputStream().readAllBytes();
+            res.getOutputStream().write("{\"id\":\"1\"}".getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertThat(totalBytes("http.server.request.size")).isEqualTo(15);
+        assertThat(totalBytes("http.server.response.size")).isEqualTo(10);
+    }
+
+    @Test
+    void countsBodiesReadAndWrittenAsCharactersInEncodedBytes() throws Exception {
+        MockHttpServletRequest request = request("{\"name\":\"Dédé\"}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setCharacterEncoding("UTF-8");
+
+        filter.doFilter(request, response, (req, res) -> {
+            while (req.getReader().read() >= 0) {
+                // Drain the body
+            }
+            res.getWriter().write("{\"nama\":\"Dédé\"}");
+        });
+
+        assertThat(totalBytes("http.server.request.size")).isEqualTo(17);
+        assertThat(totalBytes("http.server.response.size")).isEqualTo(17);
+        assertThat(response.getContentAsString()).isEqualTo("{\"nama\":\"Dédé\"}");
+    }
+
+    private static MockHttpServletRequest request(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/students");
+        request.setCharacterEncoding("UTF-8");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private double totalBytes(String name) {
+        return registry.get(name).summary().totalAmount();
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.webapp.controller;
+
+import com.example.webapp.MongoTestSupport;
+import com.example.webapp.model.ClassRoom;
+import com.example.webapp.model.RosterEntry;
+import com.example.webapp.model.Student;
+import com.example.webapp.model.Subject;
+import com.example.webapp.model.Versioned;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The regular API (/api) and the reactive read API (/api/reactive) must answer the same reads
+ * with the same status codes, bodies and ETags. The reactive cases are skipped unless the
+ * reactive sources are built in (mvn -Preactive test).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ApiContractTest extends MongoTestSupport {
+
+    private static final String SERVLET = "/api";
+    private static final String REACTIVE = "/api/reactive";
+    private static final int PAGE_SIZE = 3;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private HttpClient client;
+
+    static Stream<Arguments> resources() {
+        return Stream.of(SERVLET, REACTIVE).flatMap(api -> Stream.of(
+            Arguments.of(api, "students", Student.class, "nim"),
+            Arguments.of(api, "subjects", Subject.class, "code"),
+            Arguments.of(api, "classes", ClassRoom.class, "code")));
+    }
+
+    @BeforeEach
+    void logIn() throws Exception {
+        client = HttpClient.newBuilder()
+            .cookieHandler(new CookieManager())
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+        HttpResponse<String> login = client.send(HttpRequest.newBuilder(uri("/login"))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString("username=admin&password=admin"))
+            .build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(login.headers().firstValue("Location")).hasValueSatisfying(
+            location -> assertThat(location).doesNotContain("error"));
+    }
+
+    @ParameterizedTest(name = "{0}/{1}")
+    @MethodSource("resources")
+    void listsEveryDocument(String api, String resource, Class<?> type, String sortField) throws Exception {
+        assumeBuilt(api);
+
+        HttpResponse<String> response = get(api + "/" + resource);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        // The regular list is in storage order, the reactive one sorted; compare in sort field order
+        assertThat(sorted(elements(json(response.body())), sortField))
+            .isEqualTo(trees(mongoTemplate.find(new Query().with(Sort.by(sortField)), type)));
+    }
+
+    @ParameterizedTest(name = "{0}/{1}")
+    @MethodSource("resources")
+    void getsOneDocumentWithItsETag(String api, String resource, Class<?> type, String sortField) throws Exception {
+        assumeBuilt(api);
+        Versioned document = (Versioned) mongoTemplate.findOne(new Query().with(Sort.by(sortField)), type);
+
+        HttpResponse<String> response = get(api + "/" + resource + "/" + document.getId());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(json(response.body())).isEqualTo(tree(document));
+        assertThat(response.headers().firstValue("ETag")).hasValue(ETags.of(document));
+    }
+
+    @ParameterizedTest(name = "{0}/{1}")
+    @MethodSource("resources")
+    void answersUnknownIdWithNotFound(String api, String resource, Class<?> type, String sortField) throws Exception {
+        assumeBuilt(api);
+
+        assertThat(get(api + "/" + resource + "/" + new ObjectId()).statusCode()).isEqualTo(404);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {SERVLET, REACTIVE})
+    void listsClassRosterInNimOrder(String api) throws Exception {
+        assumeBuilt(api);
+        ClassRoom classRoom = mongoTemplate.findAll(ClassRoom.class).stream()
+            .max(Comparator.comparingInt(c -> c.getStudentIds().size()))
+            .orElseThrow();
+        assertThat(classRoom.getStudentIds()).hasSizeGreaterThan(PAGE_SIZE);
+
+        List<RosterEntry> expected = mongoTemplate.find(
+                Query.query(Criteria.where("id").in(classRoom.getStudentIds())).with(Sort.by("nim")), Student.class)
+            .stream()
+            .map(s -> new RosterEntry(s.getId(), s.getNim(), s.getName(), s.getMajor(), s.getBatch(), s.getStatus()))
+            .toList();
+
+        String path = api + "/classes/" + classRoom.getId() + "/students";
+        // The regular roster is paged, the reactive one comes whole
+        List<JsonNode> roster = SERVLET.equals(api) ? walkPages(path + "?size=" + PAGE_SIZE) : elements(json(get(path).body()));
+
+        assertThat(roster).isEqualTo(trees(expected));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {SERVLET, REACTIVE})
+    void answersRosterOfUnknownClassWithNotFound(String api) throws Exception {
+        assumeBuilt(api);
+
+        assertThat(get(api + "/classes/" + new ObjectId() + "/students").statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    void streamsReactiveListAsNdjsonInNimOrder() throws Exception {
+        assumeBuilt(REACTIVE);
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri(REACTIVE + "/students"))
+            .header("Accept", "application/x-ndjson")
+            .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+            type -> assertThat(type).startsWith("application/x-ndjson"));
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : response.body().split("\n")) {
+            lines.add(json(line));
+        }
+        assertThat(lines).isEqualTo(trees(mongoTemplate.find(new Query().with(Sort.by("nim")), Student.class)));
+    }
+
+    @Test
+    void pagesThroughStudentsInEverySortOrder() throws Exception {
+        for (String sort : List.of("nim", "name", "batch")) {
+            for (String direction : List.of("asc", "desc")) {
+                Sort.Direction order = Sort.Direction.fromString(direction);
+                List<Student> expected = mongoTemplate.find(
+                    new Query().with(Sort.by(order, sort, "id")), Student.class);
+
+                List<JsonNode> pages = walkPages(SERVLET + "/students/page?size=" + PAGE_SIZE
+                    + "&sort=" + sort + "&direction=" + direction);
+
+                assertThat(pages).as("sort=%s direction=%s", sort, direction).isEqualTo(trees(expected));
+            }
+        }
+    }
+
+    @Test
+    void limitsAndSearchesStudentOptions() throws Exception {
+        Student student = mongoTemplate.findOne(new Query().with(Sort.by("nim")), Student.class);
+
+        assertThat(elements(json(get(SERVLET + "/students/options?size=2").body()))).hasSize(2);
+        assertThat(elements(json(get(SERVLET + "/students/options?size=100000").body()))).hasSizeLessThanOrEqualTo(100);
+        assertThat(elements(json(get(SERVLET + "/students/options?q=" + student.getNim()).body())))
+            .extracting(option -> option.get("id").asText())
+            .containsExactly(student.getId());
+        String namePrefix = URLEncoder.encode(student.getName().substring(0, 3), StandardCharsets.UTF_8);
+        assertThat(elements(json(get(SERVLET + "/students/options?q=" + namePrefix + "&size=100").body())))
+            .extracting(option -> option.get("name").asText())
+            .isNotEmpty()
+            .allSatisfy(name -> assertThat(name).startsWith(student.getName().substring(0, 3)));
+    }
+
+    /**
+     * Items of every page, following nextCursor until the last page
+     */
+    private List<JsonNode> walkPages(String path) throws Exception {
+        List<JsonNode> items = new ArrayList<>();
+        String cursor = null;
+        do {
+            HttpResponse<String> response = get(cursor == null ? path
+                : path + "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8));
+            assertThat(response.statusCode()).isEqualTo(200);
+            JsonNode page = json(response.body());
+            items.addAll(elements(page.get("items")));
+            cursor = page.path("nextCursor").isTextual() ? page.get("nextCursor").asText() : null;
+        } while (cursor != null);
+        return items;
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path)).header("Accept", "application/json").build(),
+            HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static void assumeBuilt(String api) {
+        assumeTrue(!REACTIVE.equals(api) || ClassUtils.isPresent(
+            "com.example.webapp.controller.ReactiveStudentController", ApiContractTest.class.getClassLoader()),
+            "reactive API is only built with -Preactive");
+    }
+
+    private JsonNode json(String body) throws IOException {
+        return objectMapper.readTree(body);
+    }
+
+    /**
+     * As the API serializes it (parsed back, so numbers compare by their JSON form)
+     */
+    private JsonNode tree(Object value) throws IOException {
+        return json(objectMapper.writeValueAsString(value));
+    }
+
+    private List<JsonNode> trees(List<?> values) throws IOException {
+        List<JsonNode> nodes = new ArrayList<>();
+        for (Object value : values) {
+            nodes.add(tree(value));
+        }
+        return nodes;
+    }
+
+    private static List<JsonNode> elements(JsonNode array) {
+        List<JsonNode> nodes = new ArrayList<>();
+        array.forEach(nodes::add);
+        return nodes;
+    }
+
+    private static List<JsonNode> sorted(List<JsonNode> nodes, String field) {
+        return nodes.stream()
+            .sorted(Comparator.comparing((JsonNode node) -> node.path(field).asText())
+                .thenComparing(node -> node.path("id").asText()))
+            .toList();
+    }
+}
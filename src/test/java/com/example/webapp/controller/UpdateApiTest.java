@@ -0,0 +1,370 @@
+package com.example.webapp.controller;
+
+import com.example.webapp.MongoTestSupport;
+import com.example.webapp.model.ClassRoom;
+import com.example.webapp.model.Student;
+import com.example.webapp.model.StudentStatus;
+import com.example.webapp.model.Subject;
+import com.example.webapp.service.ClassRoomService;
+import com.example.webapp.service.StudentService;
+import com.example.webapp.service.SubjectService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * PUT and PATCH on /api/students: a stale If-Match or body version is refused with
+ * 412 Precondition Failed, server-managed fields stay as stored, and PATCH follows
+ * JSON Merge Patch (only the given members change, null removes an optional field).
+ * Enrollment changes on /api/classes return the new class version for the next save,
+ * and a class PUT leaves the enrolled students as stored.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class UpdateApiTest extends MongoTestSupport {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private SubjectService subjectService;
+
+    @Autowired
+    private ClassRoomService classRoomService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private HttpClient client;
+
+    @BeforeEach
+    void logIn() throws Exception {
+        client = HttpClient.newBuilder()
+            .cookieHandler(new CookieManager())
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+        HttpResponse<String> login = client.send(HttpRequest.newBuilder(uri("/login"))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString("username=admin&password=admin"))
+            .build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(login.headers().firstValue("Location")).hasValueSatisfying(
+            location -> assertThat(location).doesNotContain("error"));
+    }
+
+    @Test
+    void staleIfMatchIsRefused() throws Exception {
+        Student student = studentService.createStudent(student());
+        String etag = get("/api/students/" + student.getId()).headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<String> patched = send("PATCH", "/api/students/" + student.getId(), etag,
+            objectMapper.createObjectNode().put("status", "NOT_ACTIVE"));
+        assertThat(patched.statusCode()).isEqualTo(200);
+        assertThat(patched.headers().firstValue("ETag")).isPresent().isNotEqualTo(Optional.of(etag));
+
+        // Both methods with the ETag from before the patch
+        assertThat(send("PATCH", "/api/students/" + student.getId(), etag,
+            objectMapper.createObjectNode().put("status", "DROPOUT")).statusCode()).isEqualTo(412);
+        assertThat(send("PUT", "/api/students/" + student.getId(), etag,
+            objectMapper.valueToTree(student)).statusCode()).isEqualTo(412);
+
+        assertThat(studentService.getStudentById(student.getId())).hasValueSatisfying(stored -> {
+            assertThat(stored.getStatus()).isEqualTo(StudentStatus.NOT_ACTIVE);
+            assertThat(stored.getVersion()).isEqualTo(student.getVersion() + 1);
+        });
+    }
+
+    @Test
+    void staleBodyVersionIsRefused() throws Exception {
+        Student student = studentService.createStudent(student());
+        send("PATCH", "/api/students/" + student.getId(), null,
+            objectMapper.createObjectNode().put("name", "Mahasiswa Baru"));
+
+        // The body still carries the version it was read at
+        HttpResponse<String> response = send("PUT", "/api/students/" + student.getId(), null,
+            objectMapper.valueToTree(student));
+
+        assertThat(response.statusCode()).isEqualTo(412);
+        assertThat(studentService.getStudentById(student.getId()))
+            .hasValueSatisfying(stored -> assertThat(stored.getName()).isEqualTo("Mahasiswa Baru"));
+    }
+
+    @Test
+    void putWithoutNimKeepsTheStoredNim() throws Exception {
+        Student first = studentService.createStudent(student());
+        Student second = studentService.createStudent(student());
+
+        for (Student student : new Student[] {first, second}) {
+            ObjectNode body = objectMapper.valueToTree(student);
+            body.remove("nim");
+            body.put("name", "Mahasiswa Diubah");
+
+            HttpResponse<String> response = send("PUT", "/api/students/" + student.getId(), null, body);
+
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(json(response.body()).get("nim").asText()).isEqualTo(student.getNim());
+            assertThat(studentService.getStudentById(student.getId())).hasValueSatisfying(stored -> {
+                assertThat(stored.getNim()).isEqualTo(student.getNim());
+                assertThat(stored.getName()).isEqualTo("Mahasiswa Diubah");
+            });
+        }
+    }
+
+    @Test
+    void putWithAnotherNimIsRefused() throws Exception {
+        Student student = studentService.createStudent(student());
+        ObjectNode body = objectMapper.valueToTree(student);
+        body.put("nim", "1020229999");
+        body.put("name", "Mahasiswa Diubah");
+
+        assertThat(send("PUT", "/api/students/" + student.getId(), null, body).statusCode()).isEqualTo(409);
+        body.remove("version");
+        assertThat(send("PUT", "/api/students/" + student.getId(), null, body).statusCode()).isEqualTo(409);
+
+        assertThat(studentService.getStudentById(student.getId()))
+            .hasValueSatisfying(stored -> assertThat(stored).usingRecursiveComparison().isEqualTo(student));
+    }
+
+    @Test
+    void mergePatchChangesOnlyTheGivenMembers() throws Exception {
+        Student student = studentService.createStudent(student());
+
+        HttpResponse<String> response = send("PATCH", "/api/students/" + student.getId(), null,
+            objectMapper.createObjectNode().put("email", "baru@example.com"), "application/merge-patch+json");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        Student expected = studentService.getStudentById(student.getId()).orElseThrow();
+        assertThat(json(response.body())).isEqualTo(json(objectMapper.writeValueAsString(expected)));
+        assertThat(expected).usingRecursiveComparison().ignoringFields("email", "version").isEqualTo(student);
+        assertThat(expected.getEmail()).isEqualTo("baru@example.com");
+        assertThat(expected.getVersion()).isEqualTo(student.getVersion() + 1);
+    }
+
+    @Test
+    void mergePatchNullRemovesAnOptionalField() throws Exception {
+        Student student = studentService.createStudent(student());
+
+        HttpResponse<String> response = send("PATCH", "/api/students/" + student.getId(), null,
+            objectMapper.createObjectNode().putNull("status"));
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(json(response.body()).get("status").isNull()).isTrue();
+        assertThat(studentService.getStudentById(student.getId()))
+            .hasValueSatisfying(stored -> assertThat(stored.getStatus()).isNull());
+    }
+
+    @Test
+    void mergePatchRefusesInvalidMembers() throws Exception {
+        Student student = studentService.createStudent(student());
+        String path = "/api/students/" + student.getId();
+
+        // Required field removed, server-managed fields, unknown field, value failing validation
+        assertThat(send("PATCH", path, null, objectMapper.createObjectNode().putNull("name")).statusCode()).isEqualTo(400);
+        assertThat(send("PATCH", path, null, objectMapper.createObjectNode().put("nim", "1020229999")).statusCode())
+            .isEqualTo(400);
+        assertThat(send("PATCH", path, null, objectMapper.createObjectNode().put("version", 99)).statusCode()).isEqualTo(400);
+        assertThat(send("PATCH", path, null, objectMapper.createObjectNode().put("nickname", "x")).statusCode()).isEqualTo(400);
+        assertThat(send("PATCH", path, null, objectMapper.createObjectNode().put("batch", 1999)).statusCode()).isEqualTo(400);
+
+        assertThat(studentService.getStudentById(student.getId()))
+            .hasValueSatisfying(stored -> assertThat(stored).usingRecursiveComparison().isEqualTo(student));
+    }
+
+    @Test
+    void putWithoutVersionIsNotRefusedBecauseOfACachedCopy() throws Exception {
+        Student student = studentService.createStudent(student());
+        Subject subject = subjectService.createSubject(subject());
+        // Cache both, then change them behind the cache's back
+        studentService.getStudentById(student.getId());
+        subjectService.getSubjectById(subject.getId());
+        bumpVersion(Student.class, student.getId());
+        bumpVersion(Subject.class, subject.getId());
+
+        ObjectNode studentBody = objectMapper.valueToTree(student);
+        studentBody.remove("version");
+        studentBody.put("name", "Mahasiswa Terakhir");
+        ObjectNode subjectBody = objectMapper.valueToTree(subject);
+        subjectBody.remove("version");
+        subjectBody.put("name", "Mata Kuliah Terakhir");
+
+        HttpResponse<String> studentResponse = send("PUT", "/api/students/" + student.getId(), null, studentBody);
+        HttpResponse<String> subjectResponse = send("PUT", "/api/subjects/" + subject.getId(), null, subjectBody);
+
+        assertThat(studentResponse.statusCode()).isEqualTo(200);
+        assertThat(json(studentResponse.body()).get("version").asLong()).isEqualTo(student.getVersion() + 2);
+        assertThat(subjectResponse.statusCode()).isEqualTo(200);
+        assertThat(json(subjectResponse.body()).get("version").asLong()).isEqualTo(subject.getVersion() + 2);
+        assertThat(studentService.getStudentById(student.getId())).hasValueSatisfying(stored -> {
+            assertThat(stored.getName()).isEqualTo("Mahasiswa Terakhir");
+            assertThat(stored.getNim()).isEqualTo(student.getNim());
+        });
+        assertThat(subjectService.getSubjectById(subject.getId())).hasValueSatisfying(stored -> {
+            assertThat(stored.getName()).isEqualTo("Mata Kuliah Terakhir");
+            assertThat(stored.getCode()).isEqualTo(subject.getCode());
+        });
+    }
+
+    @Test
+    void subjectPutWithoutVersionAppliesToAnUnversionedDocument() throws Exception {
+        Subject subject = subjectService.createSubject(subject());
+        // Stored before versioning existed
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(subject.getId())),
+            new Update().unset("version"), Subject.class);
+
+        ObjectNode body = objectMapper.valueToTree(subject);
+        body.remove("version");
+        body.put("name", "Mata Kuliah Tanpa Versi");
+        HttpResponse<String> response = send("PUT", "/api/subjects/" + subject.getId(), null, body);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(json(response.body()).get("version").asLong()).isEqualTo(1L);
+        assertThat(subjectService.getSubjectById(subject.getId())).hasValueSatisfying(stored -> {
+            assertThat(stored.getName()).isEqualTo("Mata Kuliah Tanpa Versi");
+            assertThat(stored.getVersion()).isEqualTo(1L);
+        });
+    }
+
+    @Test
+    void classSaveAfterEnrollmentUsesTheReturnedVersion() throws Exception {
+        // The class modal: open the class, add and remove students, then save the form
+        ClassRoom classRoom = classRoomService.createClass(classRoom());
+        Student first = studentService.createStudent(student());
+        Student second = studentService.createStudent(student());
+        String path = "/api/classes/" + classRoom.getId();
+
+        JsonNode added = json(send("POST", path + "/students/" + first.getId(), null, null).body());
+        JsonNode enrolled = json(send("POST", path + "/enrollments", null, objectMapper.createObjectNode()
+            .set("add", objectMapper.createArrayNode().add(second.getId()))).body());
+        JsonNode removed = json(send("DELETE", path + "/students/" + first.getId(), null, null).body());
+        assertThat(added.get("version").asLong()).isEqualTo(classRoom.getVersion() + 1);
+        assertThat(enrolled.get("version").asLong()).isEqualTo(classRoom.getVersion() + 2);
+        assertThat(removed.get("version").asLong()).isEqualTo(classRoom.getVersion() + 3);
+
+        // The version the modal opened with is stale, the one returned by the last enrollment is not
+        ObjectNode form = objectMapper.valueToTree(classRoom);
+        form.put("name", "Kelas Diubah");
+        assertThat(send("PUT", path, "\"" + classRoom.getVersion() + "\"", form).statusCode()).isEqualTo(412);
+
+        form.put("version", removed.get("version").asLong());
+        HttpResponse<String> saved = send("PUT", path, "\"" + removed.get("version").asLong() + "\"", form);
+
+        assertThat(saved.statusCode()).isEqualTo(200);
+        assertThat(classRoomService.getClassById(classRoom.getId())).hasValueSatisfying(stored -> {
+            assertThat(stored.getName()).isEqualTo("Kelas Diubah");
+            assertThat(stored.getStudentIds()).containsExactly(second.getId());
+        });
+    }
+
+    @Test
+    void classPutLeavesTheEnrollmentsInPlace() throws Exception {
+        ClassRoom classRoom = classRoomService.createClass(classRoom());
+        Student first = studentService.createStudent(student());
+        Student second = studentService.createStudent(student());
+        String path = "/api/classes/" + classRoom.getId();
+        send("POST", path + "/students/" + first.getId(), null, null);
+
+        // A form without a version or studentIds, then one loaded before the second enrollment
+        ObjectNode form = objectMapper.valueToTree(classRoom);
+        form.remove("version");
+        form.remove("studentIds");
+        form.put("name", "Kelas Tanpa Roster");
+        HttpResponse<String> saved = send("PUT", path, null, form);
+        send("POST", path + "/students/" + second.getId(), null, null);
+        form.set("studentIds", objectMapper.createArrayNode().add(first.getId()));
+        HttpResponse<String> stale = send("PUT", path, null, form);
+
+        assertThat(saved.statusCode()).isEqualTo(200);
+        assertThat(json(saved.body()).get("studentIds")).containsExactly(objectMapper.valueToTree(first.getId()));
+        assertThat(stale.statusCode()).isEqualTo(200);
+        assertThat(classRoomService.getClassById(classRoom.getId())).hasValueSatisfying(stored -> {
+            assertThat(stored.getName()).isEqualTo("Kelas Tanpa Roster");
+            assertThat(stored.getStudentIds()).containsExactly(first.getId(), second.getId());
+        });
+    }
+
+    private void bumpVersion(Class<?> type, String id) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(id)), new Update().inc("version", 1), type);
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path)).header("Accept", "application/json").build(),
+            HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> send(String method, String path, String ifMatch, JsonNode body)
+            throws IOException, InterruptedException {
+        return send(method, path, ifMatch, body, "application/json");
+    }
+
+    private HttpResponse<String> send(String method, String path, String ifMatch, JsonNode body, String contentType)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path))
+            .header("Content-Type", contentType)
+            .header("Accept", "application/json")
+            .method(method, body != null
+                ? HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body))
+                : HttpRequest.BodyPublishers.noBody());
+        if (ifMatch != null) {
+            request.header("If-Match", ifMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private JsonNode json(String body) throws IOException {
+        return objectMapper.readTree(body);
+    }
+
+    private static Student student() {
+        Student student = new Student();
+        student.setName("Mahasiswa Ubah");
+        student.setEmail("ubah@example.com");
+        student.setMajor("Sistem Informasi");
+        student.setBatch(2022);
+        student.setStatus(StudentStatus.ACTIVE);
+        return student;
+    }
+
+    private static Subject subject() {
+        Subject subject = new Subject();
+        subject.setName("Mata Kuliah Ubah");
+        subject.setMajor("Sistem Informasi");
+        subject.setSks(3);
+        return subject;
+    }
+
+    private static ClassRoom classRoom() {
+        ClassRoom classRoom = new ClassRoom();
+        classRoom.setName("Kelas Ubah");
+        classRoom.setSubjectName("Basis Data");
+        classRoom.setSemester("Ganjil");
+        classRoom.setYear(2025);
+        return classRoom;
+    }
+}
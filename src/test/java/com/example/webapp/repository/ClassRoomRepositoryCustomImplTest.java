@@ -0,0 +1,81 @@
+package com.example.webapp.repository;
+
+import com.example.webapp.model.ClassRoom;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The update documents sent for enrollment changes. The in-memory test server cannot run
+ * pipeline updates, so the mixed add and remove pipeline is checked as it is sent.
+ */
+class ClassRoomRepositoryCustomImplTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ClassRoomRepositoryCustomImpl repository = new ClassRoomRepositoryCustomImpl();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(repository, "mongoTemplate", mongoTemplate);
+    }
+
+    @Test
+    void addAndRemoveTogetherRemoveThenAppendInOnePipelineUpdate() {
+        repository.updateEnrollment("class-1", List.of("s3", "s4"), List.of("s1"));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), options.capture(), eq(ClassRoom.class));
+
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("id", "class-1"));
+        assertThat(options.getValue().isReturnNew()).isFalse();
+        assertThat(update.getValue()).isInstanceOf(AggregationUpdate.class);
+
+        // Stored IDs minus the removed ones, then the added IDs not already kept
+        Document kept = new Document("$filter", new Document("input", new Document("$ifNull", List.of("$studentIds", List.of())))
+            .append("cond", new Document("$not", List.of(new Document("$in", List.of("$$this", List.of("s1")))))));
+        Document appended = new Document("$filter", new Document("input", List.of("s3", "s4"))
+            .append("cond", new Document("$not", List.of(new Document("$in", List.of("$$this", "$$kept"))))));
+        Document studentIds = new Document("$let", new Document("vars", new Document("kept", kept))
+            .append("in", new Document("$concatArrays", List.of("$$kept", appended))));
+        Document version = new Document("$add", List.of(new Document("$ifNull", List.of("$version", 0L)), 1L));
+
+        List<Document> pipeline = ((AggregationUpdate) update.getValue()).toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertThat(pipeline).containsExactly(
+            new Document("$set", new Document("studentIds", studentIds).append("version", version)));
+    }
+
+    @Test
+    void oneSidedChangesUseAddToSetOrPullAll() {
+        repository.updateEnrollment("class-1", List.of("s3"), List.of());
+        repository.updateEnrollment("class-1", List.of(), List.of("s1"));
+
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate, times(2))
+            .findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class), eq(ClassRoom.class));
+
+        assertThat(update.getAllValues().get(0)).isNotInstanceOf(AggregationUpdate.class);
+        assertThat(update.getAllValues().get(0).getUpdateObject()).containsOnlyKeys("$addToSet", "$inc");
+        assertThat(update.getAllValues().get(1).getUpdateObject()).isEqualTo(
+            new Document("$pullAll", new Document("studentIds", List.of("s1")))
+                .append("$inc", new Document("version", 1)));
+    }
+}
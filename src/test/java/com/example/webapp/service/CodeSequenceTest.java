@@ -0,0 +1,157 @@
+package com.example.webapp.service;
+
+import com.example.webapp.MongoTestSupport;
+import com.example.webapp.model.ClassRoom;
+import com.example.webapp.model.Student;
+import com.example.webapp.model.StudentStatus;
+import com.example.webapp.model.Subject;
+import com.example.webapp.repository.ClassRoomRepository;
+import com.example.webapp.repository.StudentRepository;
+import com.example.webapp.repository.SubjectRepository;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * NIM, subject and class code sequences compare existing values as numbers, so a prefix past
+ * 9999 (NIM) or 999 (codes) keeps counting from its real maximum, and stay ahead of codes set
+ * by the caller
+ */
+@SpringBootTest
+// The class code counter is shared, so the 999 boundary runs before codes are pushed further
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class CodeSequenceTest extends MongoTestSupport {
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private SubjectService subjectService;
+
+    @Autowired
+    private ClassRoomService classRoomService;
+
+    @Autowired
+    private SequenceService sequenceService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private ClassRoomRepository classRoomRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void nimsContinuePastNineThousandNineHundredNinetyNine() {
+        // A prefix no other test uses, so its counter is seeded from these two
+        mongoTemplate.insert(student("1120199999"));
+        mongoTemplate.insert(student("11201910000"));
+
+        assertThat(studentRepository.findMaxNimSequence("^112019[0-9]{4,}$")).contains(10000L);
+
+        Student created = studentService.createStudent(student(null));
+
+        assertThat(created.getNim()).isEqualTo("11201910001");
+    }
+
+    @Test
+    void subjectCodesContinuePastNineHundredNinetyNine() {
+        mongoTemplate.insert(subject("SI999", "Kode Sembilan Ratus"));
+        mongoTemplate.insert(subject("SI1000", "Kode Seribu"));
+
+        assertThat(subjectRepository.findMaxCodeSequence("^SI[0-9]{3,}$")).contains(1000L);
+        assertThat(subjectRepository.findHighestCodePerPrefix()).contains("SI1000");
+
+        subjectService.syncCodeSequences();
+        Subject created = subjectService.createSubject(subject(null, "Kode Berikutnya"));
+
+        assertThat(created.getCode()).isEqualTo("SI1001");
+    }
+
+    @Test
+    @Order(1)
+    void classCodesContinuePastNineHundredNinetyNine() {
+        mongoTemplate.insert(classRoom("KLS999"));
+        mongoTemplate.insert(classRoom("KLS1000"));
+
+        assertThat(classRoomRepository.findMaxCodeSequence()).contains(1000L);
+
+        classRoomService.syncCodeSequences();
+        ClassRoom created = classRoomService.createClass(classRoom(null));
+
+        assertThat(created.getCode()).isEqualTo("KLS1001");
+    }
+
+    @Test
+    @Order(2)
+    void classCodeSetByPatchOrPutMovesTheSequenceAhead() {
+        ClassRoom patched = classRoomService.createClass(classRoom(null));
+        classRoomService.patchClass(patched.getId(), Map.of("code", "KLS3000"), null);
+
+        assertThat(classRoomService.createClass(classRoom(null)).getCode()).isEqualTo("KLS3001");
+
+        ClassRoom replaced = classRoomService.createClass(classRoom(null));
+        replaced.setCode("KLS4000");
+        replaced.setVersion(null);
+        classRoomService.updateClass(replaced.getId(), replaced);
+
+        assertThat(classRoomService.createClass(classRoom(null)).getCode()).isEqualTo("KLS4001");
+    }
+
+    @Test
+    void advancedSequenceIsNotSeededAgain() {
+        sequenceService.advanceTo("test:advanced", 41);
+
+        long next = sequenceService.nextValue("test:advanced", () -> {
+            throw new AssertionError("Seed consulted after advanceTo");
+        });
+
+        assertThat(next).isEqualTo(42);
+    }
+
+    private static Student student(String nim) {
+        Student student = new Student();
+        student.setNim(nim);
+        student.setName("Mahasiswa Urutan");
+        student.setEmail("urutan@example.com");
+        student.setMajor("Teknologi Informasi");
+        student.setBatch(2019);
+        student.setStatus(StudentStatus.ACTIVE);
+        student.setVersion(nim == null ? null : 0L);
+        return student;
+    }
+
+    private static Subject subject(String code, String name) {
+        Subject subject = new Subject();
+        subject.setCode(code);
+        subject.setName(name);
+        subject.setMajor("Sistem Informasi");
+        subject.setSks(3);
+        subject.setVersion(code == null ? null : 0L);
+        return subject;
+    }
+
+    private static ClassRoom classRoom(String code) {
+        ClassRoom classRoom = new ClassRoom();
+        classRoom.setCode(code);
+        classRoom.setName("Kelas Urutan");
+        classRoom.setSubjectName("Basis Data");
+        classRoom.setSemester("Ganjil");
+        classRoom.setYear(2025);
+        classRoom.setVersion(code == null ? null : 0L);
+        return classRoom;
+    }
+}
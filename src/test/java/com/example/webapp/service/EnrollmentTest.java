@@ -0,0 +1,262 @@
+package com.example.webapp.service;
+
+import com.example.webapp.MongoTestSupport;
+import com.example.webapp.model.ClassRoom;
+import com.example.webapp.model.EnrollmentItemResult;
+import com.example.webapp.model.EnrollmentRequest;
+import com.example.webapp.model.EnrollmentResult;
+import com.example.webapp.model.Student;
+import com.example.webapp.model.StudentFilter;
+import com.example.webapp.model.StudentStatus;
+import com.example.webapp.repository.ClassRoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Enrollment changes are atomic updates of studentIds ($addToSet / $pull), so concurrent
+ * changes to the same class are never lost and nothing else in the class is rewritten.
+ * Batch enrollment reports an outcome for every submitted student.
+ * The in-memory server cannot run the pipeline update used when a batch both adds and removes,
+ * so that one update is applied here as the same change in plain updates (the pipeline itself
+ * is checked in ClassRoomRepositoryCustomImplTest).
+ */
+@SpringBootTest
+class EnrollmentTest extends MongoTestSupport {
+
+    @Autowired
+    private ClassRoomService classRoomService;
+
+    @Autowired
+    private StudentService studentService;
+
+    @SpyBean
+    private ClassRoomRepository classRoomRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private ClassRoom classRoom;
+
+    @BeforeEach
+    void applyMixedEnrollmentWithoutPipeline() {
+        doAnswer(invocation -> {
+            String classId = invocation.getArgument(0);
+            Collection<String> addIds = invocation.getArgument(1);
+            Collection<String> removeIds = invocation.getArgument(2);
+            if (removeIds.isEmpty()) {
+                return classRoomRepository.addStudents(classId, addIds);
+            }
+            if (addIds.isEmpty()) {
+                return classRoomRepository.removeStudents(classId, removeIds);
+            }
+
+            // Same result as the pipeline: keep the IDs not removed, then append the new ones, one version bump
+            ClassRoom before = mongoTemplate.findById(classId, ClassRoom.class);
+            if (before == null) {
+                return null;
+            }
+            Set<String> studentIds = before.enrolledStudentIds();
+            studentIds.removeAll(removeIds);
+            studentIds.addAll(addIds);
+            mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(classId)),
+                new Update().set("studentIds", new ArrayList<>(studentIds)).inc("version", 1), ClassRoom.class);
+            return before;
+        }).when(classRoomRepository).updateEnrollment(anyString(), anyCollection(), anyCollection());
+    }
+
+    @BeforeEach
+    void createClass() {
+        ClassRoom created = new ClassRoom();
+        created.setName("Kelas Pendaftaran");
+        created.setSubjectName("Basis Data");
+        created.setSemester("Genap");
+        created.setYear(2025);
+        classRoom = classRoomService.createClass(created);
+    }
+
+    @Test
+    void concurrentAddsAreAllKept() throws Exception {
+        List<String> studentIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            studentIds.add(studentService.createStudent(student("Sistem Informasi", 2021)).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> adds = new ArrayList<>();
+            for (String studentId : studentIds) {
+                adds.add(executor.submit(() -> classRoomService.addStudentToClass(classRoom.getId(), studentId)));
+            }
+            for (Future<?> add : adds) {
+                add.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        ClassRoom stored = classRoomService.getClassById(classRoom.getId()).orElseThrow();
+        assertThat(stored.getStudentIds()).containsExactlyInAnyOrderElementsOf(studentIds);
+        assertThat(stored.getVersion()).isEqualTo(classRoom.getVersion() + studentIds.size());
+    }
+
+    @Test
+    void addIsIdempotentAndRemoveTakesOnlyThatStudent() {
+        String first = studentService.createStudent(student("Sistem Informasi", 2021)).getId();
+        String second = studentService.createStudent(student("Sistem Informasi", 2021)).getId();
+
+        classRoomService.addStudentToClass(classRoom.getId(), first);
+        classRoomService.addStudentToClass(classRoom.getId(), second);
+        ClassRoom again = classRoomService.addStudentToClass(classRoom.getId(), first);
+        assertThat(again.getStudentIds()).containsExactly(first, second);
+
+        ClassRoom removed = classRoomService.removeStudentFromClass(classRoom.getId(), first);
+
+        ClassRoom stored = classRoomService.getClassById(classRoom.getId()).orElseThrow();
+        assertThat(stored.getStudentIds()).containsExactly(second);
+        assertThat(stored.getName()).isEqualTo("Kelas Pendaftaran");
+        assertThat(removed).usingRecursiveComparison().isEqualTo(stored);
+    }
+
+    @Test
+    void batchReportsUnknownAndDuplicateStudents() {
+        Student first = studentService.createStudent(student("Sistem Informasi", 2021));
+        Student second = studentService.createStudent(student("Sistem Informasi", 2021));
+        // NIM sequences grow past 9999, so NIMs can be longer than ten digits
+        Student longNim = student("Sistem Informasi", 2021);
+        longNim.setNim("10202110000");
+        longNim = studentService.createStudent(longNim);
+
+        EnrollmentResult result = enroll(List.of(first.getNim(), first.getNim(), "1099999999",
+            second.getId(), second.getNim(), longNim.getNim()), List.of(), null);
+
+        assertThat(result.getItems()).extracting(EnrollmentItemResult::getValue, EnrollmentItemResult::isSuccess,
+                EnrollmentItemResult::getMessage)
+            .containsExactly(
+                tuple(first.getNim(), true, "added"),
+                tuple(first.getNim(), true, "already enrolled"),
+                tuple("1099999999", false, "Student not found"),
+                tuple(second.getId(), true, "added"),
+                tuple(second.getNim(), true, "already enrolled"),
+                tuple(longNim.getNim(), true, "added"));
+        assertThat(result.getAdded()).isEqualTo(3);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getEnrolled()).isEqualTo(3);
+        assertThat(classRoomService.getClassById(classRoom.getId()).orElseThrow().getStudentIds())
+            .containsExactly(first.getId(), second.getId(), longNim.getId());
+    }
+
+    @Test
+    void batchEnrollsAndUnenrollsInOneRequest() {
+        Student kept = studentService.createStudent(student("Sistem Informasi", 2021));
+        Student leaving = studentService.createStudent(student("Sistem Informasi", 2021));
+        Student joining = studentService.createStudent(student("Sistem Informasi", 2021));
+        Student outsider = studentService.createStudent(student("Sistem Informasi", 2021));
+        classRoomService.addStudentToClass(classRoom.getId(), kept.getId());
+        classRoomService.addStudentToClass(classRoom.getId(), leaving.getId());
+
+        EnrollmentResult result = enroll(List.of(joining.getNim(), kept.getId(), "1099999999"),
+            List.of(leaving.getNim(), outsider.getId()), null);
+
+        assertThat(result.getItems()).extracting(EnrollmentItemResult::getValue, EnrollmentItemResult::getAction,
+                EnrollmentItemResult::isSuccess, EnrollmentItemResult::getMessage)
+            .containsExactly(
+                tuple(joining.getNim(), EnrollmentItemResult.ADD, true, "added"),
+                tuple(kept.getId(), EnrollmentItemResult.ADD, true, "already enrolled"),
+                tuple("1099999999", EnrollmentItemResult.ADD, false, "Student not found"),
+                tuple(leaving.getNim(), EnrollmentItemResult.REMOVE, true, "removed"),
+                tuple(outsider.getId(), EnrollmentItemResult.REMOVE, true, "not enrolled"));
+        assertThat(result.getAdded()).isEqualTo(1);
+        assertThat(result.getRemoved()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getEnrolled()).isEqualTo(2);
+
+        ClassRoom stored = classRoomService.getClassById(classRoom.getId()).orElseThrow();
+        assertThat(stored.getStudentIds()).containsExactly(kept.getId(), joining.getId());
+        assertThat(stored.getVersion()).isEqualTo(result.getVersion());
+    }
+
+    @Test
+    void studentListedToAddAndRemoveIsLeftAlone() {
+        Student student = studentService.createStudent(student("Sistem Informasi", 2021));
+
+        EnrollmentResult result = enroll(List.of(student.getId()), List.of(student.getNim()), null);
+
+        assertThat(result.getItems()).allSatisfy(item -> {
+            assertThat(item.isSuccess()).isFalse();
+            assertThat(item.getMessage()).isEqualTo("Listed in both add and remove");
+        });
+        assertThat(result.getEnrolled()).isZero();
+    }
+
+    @Test
+    void cohortEnrollsEveryMatchingStudent() {
+        List<String> cohort = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            cohort.add(studentService.createStudent(student("Teknologi Informasi", 2015)).getId());
+        }
+        studentService.createStudent(student("Sistem Informasi", 2015));
+        String enrolled = studentService.createStudent(student("Sistem Informasi", 2021)).getId();
+        classRoomService.addStudentToClass(classRoom.getId(), enrolled);
+
+        StudentFilter filter = new StudentFilter();
+        filter.setMajor("Teknologi Informasi");
+        filter.setBatch(2015);
+        EnrollmentResult result = enroll(List.of(), List.of(), filter);
+
+        assertThat(result.getAdded()).isEqualTo(3);
+        assertThat(result.getEnrolled()).isEqualTo(4);
+        List<String> expected = new ArrayList<>(cohort);
+        expected.add(enrolled);
+        assertThat(classRoomService.getClassById(classRoom.getId()).orElseThrow().getStudentIds())
+            .containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void cohortWithoutFiltersIsRejected() {
+        EnrollmentRequest request = new EnrollmentRequest();
+        request.setCohort(new StudentFilter());
+
+        assertThatThrownBy(() -> classRoomService.updateEnrollment(classRoom.getId(), request))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private EnrollmentResult enroll(List<String> add, List<String> remove, StudentFilter cohort) {
+        EnrollmentRequest request = new EnrollmentRequest();
+        request.setAdd(add);
+        request.setRemove(remove);
+        request.setCohort(cohort);
+        return classRoomService.updateEnrollment(classRoom.getId(), request).orElseThrow();
+    }
+
+    private static Student student(String major, int batch) {
+        Student student = new Student();
+        student.setName("Mahasiswa Kelas");
+        student.setEmail("kelas@example.com");
+        student.setMajor(major);
+        student.setBatch(batch);
+        student.setStatus(StudentStatus.ACTIVE);
+        return student;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.webapp.service;
+
+import com.example.webapp.MongoTestSupport;
+import com.example.webapp.model.ImportReport;
+import com.example.webapp.model.Student;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ImportServiceTest extends MongoTestSupport {
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void jsonImportSkipsUnmappableRecordAndKeepsTheRest() {
+        String json = """
+            [
+              {"name": "Impor Json Satu", "email": "impor.json1@student.ac.id", "major": "Sistem Informasi", "batch": 2024, "status": "ACTIVE"},
+              {"name": "Impor Json Dua", "email": "impor.json2@student.ac.id", "major": "Sistem Informasi", "batch": "dua ribu", "status": "ACTIVE"},
+              {"name": "Impor Json Tiga", "email": "impor.json3@student.ac.id", "major": "Sistem Informasi", "batch": 2024, "status": "ACTIVE"}
+            ]
+            """;
+
+        ImportReport report = importService.importStudents(stream(json), "json", "test.json");
+
+        assertThat(report.getRead()).isEqualTo(3);
+        assertThat(report.getCreated()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getErrors()).singleElement().asString().startsWith("Record 1:");
+        assertThat(countByEmail("impor.json1@student.ac.id", "impor.json3@student.ac.id")).isEqualTo(2);
+    }
+
+    @Test
+    void csvImportReportsInvalidRowAndKeepsTheRest() {
+        String csv = """
+            nim,name,email,major,batch,status
+            ,Impor Csv Satu,impor.csv1@student.ac.id,Teknologi Informasi,2024,ACTIVE
+            ,Impor Csv 2,impor.csv2@student.ac.id,Teknologi Informasi,2024,ACTIVE
+            ,Impor Csv Tiga,impor.csv3@student.ac.id,Teknologi Informasi,2024,ACTIVE
+            """;
+
+        ImportReport report = importService.importStudents(stream(csv), "csv", "test.csv");
+
+        assertThat(report.getRead()).isEqualTo(3);
+        assertThat(report.getCreated()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getErrors()).singleElement().asString().startsWith("Record 1:");
+        assertThat(countByEmail("impor.csv1@student.ac.id", "impor.csv3@student.ac.id")).isEqualTo(2);
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long countByEmail(String... emails) {
+        return mongoTemplate.count(new Query(Criteria.where("email").in((Object[]) emails)), Student.class);
+    }
+}
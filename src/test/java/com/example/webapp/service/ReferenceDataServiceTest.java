@@ -0,0 +1,75 @@
+package com.example.webapp.service;
+
+import com.example.webapp.model.ReferenceData;
+import com.example.webapp.model.SelectOption;
+import com.example.webapp.model.SubjectFilter;
+import com.example.webapp.repository.SubjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The snapshot is shared until a subject changes; a change that lands while a
+ * snapshot is being built keeps that snapshot out of the cache
+ */
+class ReferenceDataServiceTest {
+
+    private final SubjectRepository subjectRepository = mock(SubjectRepository.class);
+    private final ReferenceDataServiceImpl service = new ReferenceDataServiceImpl();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "subjectRepository", subjectRepository);
+        ReflectionTestUtils.setField(service, "majorOptions", "Teknik Informatika,Sistem Informasi");
+        ReflectionTestUtils.setField(service, "semesterOptions", "Ganjil,Genap");
+    }
+
+    @Test
+    void snapshotIsSharedUntilSubjectsChange() {
+        when(subjectRepository.findOptions(any(SubjectFilter.class)))
+            .thenReturn(List.of(option("Basis Data")))
+            .thenReturn(List.of(option("Basis Data Lanjut")));
+
+        ReferenceData first = service.getReferenceData();
+        assertThat(service.getReferenceData()).isSameAs(first);
+
+        service.subjectsChanged();
+        ReferenceData second = service.getReferenceData();
+
+        assertThat(second.getVersion()).isNotEqualTo(first.getVersion());
+        assertThat(second.getSubjects()).extracting(SelectOption::getName).containsExactly("Basis Data Lanjut");
+        verify(subjectRepository, times(2)).findOptions(any(SubjectFilter.class));
+    }
+
+    @Test
+    void changeDuringRebuildIsNotHiddenByTheOlderSnapshot() {
+        // The subject is renamed after the build has read the subjects, before it publishes the snapshot
+        when(subjectRepository.findOptions(any(SubjectFilter.class)))
+            .thenAnswer(invocation -> {
+                service.subjectsChanged();
+                return List.of(option("Basis Data"));
+            })
+            .thenReturn(List.of(option("Basis Data Lanjut")));
+
+        ReferenceData stale = service.getReferenceData();
+        ReferenceData next = service.getReferenceData();
+
+        assertThat(stale.getSubjects()).extracting(SelectOption::getName).containsExactly("Basis Data");
+        assertThat(next.getSubjects()).extracting(SelectOption::getName).containsExactly("Basis Data Lanjut");
+        assertThat(next.getVersion()).isNotEqualTo(stale.getVersion());
+        assertThat(service.getReferenceData()).isSameAs(next);
+    }
+
+    private static SelectOption option(String name) {
+        return new SelectOption("subject-1", "MK001", name);
+    }
+}
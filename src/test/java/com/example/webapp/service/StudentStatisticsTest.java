@@ -0,0 +1,140 @@
+package com.example.webapp.service;
+
+import com.example.webapp.MongoTestSupport;
+import com.example.webapp.model.BulkResult;
+import com.example.webapp.model.MajorCount;
+import com.example.webapp.model.MajorStatistics;
+import com.example.webapp.model.Student;
+import com.example.webapp.model.StudentStatus;
+import com.example.webapp.repository.StudentRepository;
+import com.example.webapp.repository.SubjectRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The dashboard counters count every write exactly once, also when a reconcile runs
+ * while students are being created; writes are not held back while a reconcile counts
+ */
+@SpringBootTest
+class StudentStatisticsTest extends MongoTestSupport {
+
+    private static final String MAJOR = "Teknologi Informasi";
+
+    @Autowired
+    private StudentStatisticsService statisticsService;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void bulkCreateIsCountedOnce() {
+        statisticsService.reconcile();
+        long before = totalStudents();
+
+        BulkResult result = studentService.bulkCreateStudents(List.of(student(), student(), student()));
+
+        assertThat(result.getCreated()).isEqualTo(3);
+        assertThat(totalStudents()).isEqualTo(before + 3);
+        assertThat(totalStudents()).isEqualTo(studentRepository.count());
+    }
+
+    @Test
+    void writesDuringReconcileAreCountedOnce() throws Exception {
+        statisticsService.reconcile();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                writes.add(executor.submit(() -> studentService.createStudent(student())));
+            }
+            for (int i = 0; i < 10; i++) {
+                statisticsService.reconcile();
+            }
+            for (Future<?> write : writes) {
+                write.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Map<String, Object> stats = statisticsService.getStatistics();
+        assertThat(stats.get("totalStudents")).isEqualTo(studentRepository.count());
+        assertThat(stats.get("totalSubjects")).isEqualTo(subjectRepository.count());
+        @SuppressWarnings("unchecked")
+        List<MajorStatistics> majors = (List<MajorStatistics>) stats.get("majors");
+        MajorStatistics major = majors.stream().filter(m -> MAJOR.equals(m.getMajor())).findFirst().orElseThrow();
+        assertThat(major.getTotalStudents())
+            .isEqualTo(mongoTemplate.count(Query.query(Criteria.where("major").is(MAJOR)), Student.class));
+    }
+
+    @Test
+    void writesAreNotBlockedWhileReconcileCounts() throws Exception {
+        StudentRepository students = mock(StudentRepository.class);
+        SubjectRepository subjects = mock(SubjectRepository.class);
+        StudentStatisticsServiceImpl service = new StudentStatisticsServiceImpl();
+        ReflectionTestUtils.setField(service, "studentRepository", students);
+        ReflectionTestUtils.setField(service, "subjectRepository", subjects);
+        ReflectionTestUtils.setField(service, "majorOptions", MAJOR);
+        ReflectionTestUtils.setField(service, "reconcileAttempts", 3);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // The first count is overlapped by a write, which has to finish while the count runs
+            when(students.countByMajorAndStatus())
+                .thenAnswer(invocation -> {
+                    executor.submit(() -> service.beginChange().close()).get(5, TimeUnit.SECONDS);
+                    return List.of(new MajorCount(MAJOR, StudentStatus.ACTIVE, 1));
+                })
+                .thenReturn(List.of(new MajorCount(MAJOR, StudentStatus.ACTIVE, 2)));
+            when(subjects.countByMajor()).thenReturn(List.of());
+
+            assertThat(service.getStatistics().get("totalStudents")).isEqualTo(2L);
+            verify(students, times(2)).countByMajorAndStatus();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private long totalStudents() {
+        return (Long) statisticsService.getStatistics().get("totalStudents");
+    }
+
+    private static Student student() {
+        Student student = new Student();
+        student.setName("Mahasiswa Statistik");
+        student.setEmail("statistik@example.com");
+        student.setMajor(MAJOR);
+        student.setBatch(2024);
+        student.setStatus(StudentStatus.ACTIVE);
+        return student;
+    }
+}